@@ -1,53 +1,183 @@
+import metaheuristics.tabusearch.Island;
+import metaheuristics.tabusearch.IslandCoordinator;
+import problems.scqbf.QBFMatrix;
+import problems.scqbf.SCQBF;
+import problems.scqbf.SCQBFInstance;
+import problems.scqbf.SCQBFInverse;
+import problems.scqbf.SCQBFReduction;
+import problems.scqbf.solvers.MultiStartSCQBF;
+import problems.scqbf.solvers.PortfolioSCQBF;
 import problems.scqbf.solvers.TSSCQBF;
+import solutions.IntSolution;
 
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
 
 public class Main {
-    public static void main(String[] args) throws IOException {
-        if (args.length != 2) {
+    private static final int t1 = 20, t2 = 5;
+    private static final int maxTimeSecs = 1800;
+
+    //the methods run concurrently by the portfolio method
+    private static final String[] portfolioMethods = {"std", "std+t2", "std+best", "std+div", "std+int"};
+
+    //the methods the workers of the coop method cycle through, and how they cooperate; the workers sharing a method
+    //build their initial solutions with the greediness of the grasp method, unless the alpha option is given
+    private static final String[] coopMethods = {"std", "std+t2", "std+best"};
+    private static final int elitePoolSize = 10;
+    private static final int restartAfter = 100;
+
+    //the candidate list strategy of the std+cls method
+    private static final int candidateListSize = 10;
+    private static final int fullScanInterval = 20;
+
+    //the multi-start search of the grasp method: the fraction of the time generating starts, the TS iterations
+    //from each start and the greediness of their construction, unless the alpha option is given
+    private static final double breadthFraction = 0.25;
+    private static final int startIterations = 1000;
+    private static final double graspAlpha = 0.2;
+
+    //the path relinking of the std+pr method: the local optima kept, the fraction of the variables on which they
+    //differ pairwise and the fraction of the time spent relinking them
+    private static final int relinkPoolSize = 10;
+    private static final double relinkDistance = 0.05;
+    private static final double relinkFraction = 0.1;
+
+    //the maximum depth of the ejection chains of the std+ejc method
+    private static final int ejectionChainDepth = 5;
+
+    //defaults of the options
+    private static final String defaultSeed = "0";
+    private static final String defaultHost = "localhost";
+    private static final String defaultPort = "4040";
+    private static final String defaultIslands = "2";
+    private static final String defaultReduce = "false";
+    private static final String defaultAlpha = "0";
+    private static final String defaultStorage = "auto";
+    private static final String defaultDrift = String.valueOf(SCQBF.DEFAULT_DRIFT_CHECK_INTERVAL);
+
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        if (args.length < 2) {
             System.out.println("Wrong number of arguments, should provide the instanceName and methodName, e.g: exact_n25 std");
             return;
         }
+        var options = parseOptions(args);
+        if (options == null) {
+            System.out.println("Wrong option, options should be given as key=value, e.g: exact_n25 island port=4040");
+            return;
+        }
+        //how the QBF matrix of the instance is stored
+        QBFMatrix.Storage storage;
+        try {
+            storage = QBFMatrix.Storage.valueOf(options.getOrDefault("storage", defaultStorage).toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Wrong storage, should be one of auto, dense, packed or packed_float");
+            return;
+        }
         System.out.println("Press ctrl+c to cancel the execution and see the result so far in the output file");
 
         var instance = args[0];
         var method = args[1];
         var fileName = "instances/" + instance + ".txt";
 
-        int t1 = 20, t2 = 5;
-        int maxTimeSecs = 1800;
+        long seed = Long.parseLong(options.getOrDefault("seed", defaultSeed));
+        //the workers of the portfolio, coop and grasp methods get seeds split from this one
+        var seeds = new SplittableRandom(seed);
+        //whether the single, portfolio, coop and grasp methods search the reduced instance
+        boolean reduce = Boolean.parseBoolean(options.getOrDefault("reduce", defaultReduce));
+        //the greediness of the constructive heuristic of every solver
+        double alpha = Double.parseDouble(options.getOrDefault("alpha", defaultAlpha));
+        if (!(alpha >= 0 && alpha <= 1)) {
+            System.out.println("Wrong alpha, should be a number between 0 and 1");
+            return;
+        }
+        //the moves applied incrementally between two full evaluations of the solution of every solver
+        int drift = Integer.parseInt(options.getOrDefault("drift", defaultDrift));
+        if (drift < 0) {
+            System.out.println("Wrong drift, should be a number of moves, or 0 to disable the drift check");
+            return;
+        }
 
         var stdOut = System.out;
 
         //redirect the output to a file
-        var outputPath = "results/" + method + "/" + instance + ".txt";
+        var outputName = options.containsKey("name") ? instance + "_" + options.get("name") : instance;
+        var outputPath = "results/" + method + "/" + outputName + ".txt";
         PrintStream out = new PrintStream(new FileOutputStream(outputPath, false)); // true = append
         System.setOut(out);
 
         try {
-            if (method.equals("std")) {
+            if (method.equals("portfolio")) {
+                printHeader(fileName, method);
+                var reduction = reduce ? reduce(fileName, storage) : null;
+                var data = reduction != null ? reduction.reduced : new SCQBFInstance(fileName, storage);
+                var portfolio = new PortfolioSCQBF();
+                for (var m : portfolioMethods) {
+                    portfolio.add(m, createSolver(m, data, seeds.split().nextLong(), alpha, drift));
+                }
+                printExpanded(reduction, portfolio.solve());
+            } else if (method.equals("coop")) {
                 printHeader(fileName, method);
-                var solver = new TSSCQBF(t1, maxTimeSecs, false, fileName, false, false);
-                solver.solve();
-            } else if (method.equals("std+t2")) {
+                var reduction = reduce ? reduce(fileName, storage) : null;
+                var data = reduction != null ? reduction.reduced : new SCQBFInstance(fileName, storage);
+                var portfolio = new PortfolioSCQBF();
+                int workers = Math.max(2, Runtime.getRuntime().availableProcessors());
+                double startAlpha = options.containsKey("alpha") ? alpha : graspAlpha;
+                for (int i = 0; i < workers; i++) {
+                    var m = coopMethods[i % coopMethods.length];
+                    portfolio.add(m + "#" + i, createSolver(m, data, seeds.split().nextLong(), startAlpha, drift));
+                }
+                portfolio.cooperate(elitePoolSize, restartAfter);
+                printExpanded(reduction, portfolio.solve());
+            } else if (method.equals("grasp")) {
                 printHeader(fileName, method);
-                var solver = new TSSCQBF(t2, maxTimeSecs, false, fileName, false, false);
-                solver.solve();
-            } else if (method.equals("std+best")) {
+                var reduction = reduce ? reduce(fileName, storage) : null;
+                var data = reduction != null ? reduction.reduced : new SCQBFInstance(fileName, storage);
+                var multiStart = new MultiStartSCQBF(maxTimeSecs, breadthFraction, startIterations, elitePoolSize,
+                        restartAfter);
+                int workers = Runtime.getRuntime().availableProcessors();
+                double startAlpha = options.containsKey("alpha") ? alpha : graspAlpha;
+                for (int i = 0; i < workers; i++) {
+                    multiStart.add(createSolver("std", data, seeds.split().nextLong(), startAlpha, drift));
+                }
+                printExpanded(reduction, multiStart.solve());
+            } else if (method.equals("coordinator")) {
                 printHeader(fileName, method);
-                var solver = new TSSCQBF(t1, maxTimeSecs, true, fileName, false, false);
-                solver.solve();
-            } else if (method.equals("std+div")) {
+                int port = Integer.parseInt(options.getOrDefault("port", defaultPort));
+                int islands = Integer.parseInt(options.getOrDefault("islands", defaultIslands));
+                new IslandCoordinator(port, islands).run(maxTimeSecs);
+            } else if (method.equals("island")) {
                 printHeader(fileName, method);
-                var solver = new TSSCQBF(t1, maxTimeSecs, false, fileName, true, false);
-                solver.solve();
-            } else if (method.equals("std+int")) {
+                var islandMethod = options.getOrDefault("method", "std");
+                var data = new SCQBFInstance(fileName, storage);
+                //randomized like the grasp starts, so that islands with distinct seeds start from distinct solutions
+                double startAlpha = options.containsKey("alpha") ? alpha : graspAlpha;
+                var solver = createSolver(islandMethod, data, seed, startAlpha, drift);
+                if (solver == null) {
+                    System.setOut(stdOut);
+                    System.out.println("Wrong method name");
+                    return;
+                }
+                var island = new Island(options.getOrDefault("name", "island"), solver, new SCQBFInverse(data),
+                        elitePoolSize, restartAfter);
+                island.run(options.getOrDefault("host", defaultHost),
+                        Integer.parseInt(options.getOrDefault("port", defaultPort)));
+            } else {
                 printHeader(fileName, method);
-                var solver = new TSSCQBF(t1, maxTimeSecs, false, fileName, false, true);
-                solver.solve();
+                var reduction = reduce ? reduce(fileName, storage) : null;
+                var data = reduction != null ? reduction.reduced : new SCQBFInstance(fileName, storage);
+                var solver = createSolver(method, data, seed, alpha, drift);
+                if (solver == null) {
+                    System.setOut(stdOut);
+                    System.out.println("Wrong method name");
+                    return;
+                }
+                printExpanded(reduction, solver.solve());
             }
         } catch (FileNotFoundException e) {
             System.setOut(stdOut);
@@ -55,7 +185,110 @@ public class Main {
         }
     }
 
+    /**
+     * @return the key=value options following the instance and method names,
+     *         or null when an option is malformed
+     */
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 2; i < args.length; i++) {
+            int eq = args[i].indexOf('=');
+            if (eq <= 0) {
+                return null;
+            }
+            options.put(args[i].substring(0, eq), args[i].substring(eq + 1));
+        }
+        return options;
+    }
+
+    /**
+     * @return the solver of the given method over the instance, seeded with
+     *         the given seed, building its initial solution with the given
+     *         greediness and checking the drift of its incremental cost every
+     *         given number of moves, or null when the method does not exist
+     */
+    private static TSSCQBF createSolver(String method, SCQBFInstance instance, long seed, double alpha, int drift) {
+        var solver = createSolver(method, instance, seed);
+        if (solver != null) {
+            solver.setAlpha(alpha);
+            solver.setDriftCheckInterval(drift);
+        }
+        return solver;
+    }
+
+    /**
+     * @return the solver of the given method over the instance, seeded with
+     *         the given seed, or null when the method does not exist
+     */
+    private static TSSCQBF createSolver(String method, SCQBFInstance instance, long seed) {
+        switch (method) {
+            case "std":
+                return new TSSCQBF(t1, maxTimeSecs, false, instance, false, false, seed);
+            case "std+t2":
+                return new TSSCQBF(t2, maxTimeSecs, false, instance, false, false, seed);
+            case "std+best":
+                return new TSSCQBF(t1, maxTimeSecs, true, instance, false, false, seed);
+            case "std+best+par": {
+                var solver = new TSSCQBF(t1, maxTimeSecs, true, instance, false, false, seed);
+                solver.setParallelism(Runtime.getRuntime().availableProcessors());
+                return solver;
+            }
+            case "std+cls": {
+                var solver = new TSSCQBF(t1, maxTimeSecs, false, instance, false, false, seed);
+                solver.setCandidateListStrategy(candidateListSize, fullScanInterval);
+                return solver;
+            }
+            case "std+ejc": {
+                var solver = new TSSCQBF(t1, maxTimeSecs, false, instance, false, false, seed);
+                solver.setEjectionChains(ejectionChainDepth);
+                return solver;
+            }
+            case "std+osc": {
+                var solver = new TSSCQBF(t1, maxTimeSecs, false, instance, false, false, seed);
+                solver.setStrategicOscillation(true);
+                return solver;
+            }
+            case "std+pr": {
+                var solver = new TSSCQBF(t1, maxTimeSecs, false, instance, false, false, seed);
+                solver.setPathRelinking(relinkPoolSize, Math.max(1, (int) (relinkDistance * instance.size)),
+                        relinkFraction);
+                return solver;
+            }
+            case "std+react": {
+                var solver = new TSSCQBF(t1, maxTimeSecs, false, instance, false, false, seed);
+                solver.setReactiveTenure(true);
+                return solver;
+            }
+            case "std+div":
+                return new TSSCQBF(t1, maxTimeSecs, false, instance, true, false, seed);
+            case "std+int":
+                return new TSSCQBF(t1, maxTimeSecs, false, instance, false, true, seed);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @return the reduction of the instance in the given file, whose
+     *         statistics are printed
+     */
+    private static SCQBFReduction reduce(String fileName, QBFMatrix.Storage storage) throws IOException {
+        var reduction = new SCQBFReduction(new SCQBFInstance(fileName, storage));
+        System.out.println(reduction);
+        return reduction;
+    }
+
+    /**
+     * Prints the best solution mapped back to the original instance, when
+     * the search ran on a reduced one
+     */
+    private static void printExpanded(SCQBFReduction reduction, IntSolution bestSol) {
+        if (reduction != null) {
+            System.out.println("Best solution in the original instance: " + reduction.expand(bestSol));
+        }
+    }
+
     private static void printHeader(String instance, String method) {
         System.out.printf("instance=%s method=%s\n", instance, method);
     }
-}
\ No newline at end of file
+}
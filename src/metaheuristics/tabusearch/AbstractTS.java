@@ -7,21 +7,21 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.ArrayDeque;
-import java.util.ArrayList;
-import java.util.Random;
+import java.util.Arrays;
+import java.util.SplittableRandom;
 
-import problems.Evaluator;
-import solutions.Solution;
+import problems.IntEvaluator;
+import solutions.IntSet;
+import solutions.IntSolution;
 
 /**
  * Abstract class for metaheuristic Tabu Search. It consider a minimization problem.
+ * The candidate elements are ints, kept in primitive sets so that the search
+ * never boxes them.
  *
  * @author ccavellucci, fusberti, ecembranel
- * @param <E>
- *            Generic type of the candidate to enter the solution.
  */
-public abstract class AbstractTS<E> {
+public abstract class AbstractTS {
 
     /**
      * flag that indicates whether the code should print more information on
@@ -30,34 +30,61 @@ public abstract class AbstractTS<E> {
     public static int verboseLevel = 1;
 
     /**
-     * a random number generator
+     * the smallest cost decrease accepted as an improvement of the best
+     * solution, so that the rounding error of the incremental cost updates
+     * is not mistaken for an improvement when a solution is revisited
      */
-    static Random rng = new Random(0);
+    public static final double EPSILON = 1e-6;
+
+    /**
+     * prefix of every line printed by this solver, telling apart the output
+     * of solvers running concurrently
+     */
+    protected String label = "";
+
+    /**
+     * the seed used when none is given
+     */
+    public static final long DEFAULT_SEED = 0;
+
+    /**
+     * the random number generator of this solver, so that solvers running
+     * concurrently neither contend on a shared generator nor disturb each
+     * other's sequence
+     */
+    protected final SplittableRandom rng;
+
+    /**
+     * the seed of {@link #rng}, from which the options of a solver derive
+     * generators of their own, so that enabling them does not change the
+     * random choices of the search
+     */
+    protected final long seed;
 
     /**
      * the objective function being optimized
      */
-    protected Evaluator<E> ObjFunction;
+    protected IntEvaluator ObjFunction;
 
     /**
      * the best solution cost
      */
-    protected Double bestCost;
+    protected double bestCost;
 
     /**
      * the incumbent solution cost
      */
-    protected Double cost;
+    protected double cost;
 
     /**
      * the best solution
      */
-    protected Solution<E> bestSol;
+    protected IntSolution bestSol;
 
     /**
      * the incumbent solution
      */
-    protected Solution<E> sol;
+    protected IntSolution sol;
 
     /**
      * the number of seconds allowed for the solve method
@@ -65,24 +92,62 @@ public abstract class AbstractTS<E> {
     protected Integer maxTimeSeconds;
 
     /**
-     * the tabu tenure.
+     * the number of iterations allowed for the solve method, or 0 when only
+     * the time limit applies
+     */
+    protected int maxIterations;
+
+    /**
+     * whether the lines printed by the search are suppressed, as for the
+     * many short runs of a multi-start search
+     */
+    protected boolean quiet;
+
+    /**
+     * the tabu tenure of an element that entered the solution, i.e. for how
+     * many iterations it is not allowed to leave it.
+     */
+    protected int tenureAdded;
+
+    /**
+     * the tabu tenure of an element that left the solution, i.e. for how many
+     * iterations it is not allowed to enter it again.
      */
-    protected Integer tenure;
+    protected int tenureDropped;
 
     /**
      * the Candidate List of elements to enter the solution.
      */
-    protected ArrayList<E> CL;
+    protected IntSet CL;
 
     /**
      * the Restricted Candidate List of elements to enter the solution.
      */
-    protected ArrayList<E> RCL;
+    protected IntSet RCL;
+
+    /**
+     * the greediness of the constructive heuristic: the RCL holds the
+     * candidates whose cost variation is at most min + alpha * (max - min),
+     * so 0 is the pure greedy and 1 a random construction
+     */
+    protected double alpha;
+
+    /**
+     * insertionCosts[k] = the cost variation of inserting CL[k], evaluated
+     * once per construction step
+     */
+    private double[] insertionCosts;
+
+    /**
+     * the tabu memory: tabuUntil[e] is the last iteration in which moves
+     * involving element e are tabu.
+     */
+    protected int[] tabuUntil;
 
     /**
-     * the Tabu List of elements to enter the solution.
+     * the current iteration of the search.
      */
-    protected ArrayDeque<E> TL;
+    protected int iteration;
 
     /**
      * Whether the disersification strategy is enabled in the search
@@ -100,29 +165,72 @@ public abstract class AbstractTS<E> {
     protected int[] varfrequency;
 
     /**
-     * Creates the Candidate List, which is an ArrayList of candidate elements
+     * the elite pool shared with the other workers of a cooperative search,
+     * or null when this solver runs alone
+     */
+    protected ElitePool elitePool;
+
+    /**
+     * the identifier of this solver among the workers sharing the elite pool
+     */
+    protected int workerId;
+
+    /**
+     * how many iterations without improvement make a cooperative worker
+     * restart from an elite solution
+     */
+    protected int restartAfter;
+
+    /**
+     * the fraction of the variables changed when restarting from an elite
+     * solution
+     */
+    protected static final double RESTART_PERTURBATION = 0.05;
+
+    /**
+     * the path relinking between the local optima met by the search, run
+     * during the last {@link #relinkFraction} of the time, or null when
+     * disabled
+     */
+    private PathRelinking relinking;
+
+    private double relinkFraction;
+
+    private int relinkPoolSize, relinkMinDistance;
+
+    /**
+     * the diverse local optima met by the current solve
+     */
+    private ElitePool localOptima;
+
+    /**
+     * the last solution reached by an improving move, which is a local
+     * optimum when the next move does not improve it
+     */
+    private IntSolution localOptimum;
+
+    private boolean descending, localOptimumFeasible;
+
+    /**
+     * set by another thread to end the search before its time limit
+     */
+    private volatile boolean stopRequested;
+
+    /**
+     * Creates the Candidate List, which is an IntSet of candidate elements
      * that can enter a solution.
      *
      * @return The Candidate List.
      */
-    public abstract ArrayList<E> makeCL();
+    public abstract IntSet makeCL();
 
     /**
-     * Creates the Restricted Candidate List, which is an ArrayList of the best
+     * Creates the Restricted Candidate List, which is an IntSet of the best
      * candidate elements that can enter a solution.
      *
      * @return The Restricted Candidate List.
      */
-    public abstract ArrayList<E> makeRCL();
-
-    /**
-     * Creates the Tabu List, which is an ArrayDeque of the Tabu
-     * candidate elements. The number of iterations a candidate
-     * is considered tabu is given by the Tabu Tenure {@link #tenure}
-     *
-     * @return The Tabu List.
-     */
-    public abstract ArrayDeque<E> makeTL();
+    public abstract IntSet makeRCL();
 
     /**
      * Updates the Candidate List according to the incumbent solution
@@ -137,7 +245,7 @@ public abstract class AbstractTS<E> {
      *
      * @return An empty solution.
      */
-    public abstract Solution<E> createEmptySol();
+    public abstract IntSolution createEmptySol();
 
     /**
      * The TS local search phase is responsible for repeatedly applying a
@@ -149,7 +257,7 @@ public abstract class AbstractTS<E> {
      *
      * @return An local optimum solution.
      */
-    public abstract Solution<E> neighborhoodMove();
+    public abstract IntSolution neighborhoodMove();
 
     /**
      * Updates the varFrequency memory (used for diversification)
@@ -164,11 +272,22 @@ public abstract class AbstractTS<E> {
      */
     public abstract void diverfisyByRestart(double factor);
 
+    /**
+     * Makes a perturbed copy of the given solution the incumbent solution.
+     *
+     * @param start
+     *            the solution to restart from, which is not modified.
+     * @param factor
+     *            a value in the interval (0,1) used to decide how many
+     *            variables should change.
+     */
+    public abstract void restartFrom(IntSolution start, double factor);
+
     /**
      *
      * Intensifies the currently best global solution using more complex neighborhood operations
      */
-    public abstract Solution<E> intensify();
+    public abstract IntSolution intensify();
 
     /**
      * Constructor for the AbstractTS class.
@@ -176,43 +295,193 @@ public abstract class AbstractTS<E> {
      * @param objFunction
      *            The objective function being minimized.
      * @param tenure
-     *            The Tabu tenure parameter.
+     *            The Tabu tenure parameter, used both for the elements added
+     *            to and dropped from the solution.
      * @param maxTimeSeconds
      *            The number of seconds allowed for the solve method
+     * @param seed
+     *            The seed of the random number generator of this solver
      */
     public AbstractTS(
-            Evaluator<E> objFunction,
+            IntEvaluator objFunction,
             Integer tenure,
             Integer maxTimeSeconds,
             Boolean enableDiversification,
-            Boolean enableIntensification
+            Boolean enableIntensification,
+            Long seed
             ) {
         this.ObjFunction = objFunction;
-        this.tenure = tenure;
+        this.rng = new SplittableRandom(seed);
+        this.seed = seed;
+        this.tenureAdded = tenure;
+        this.tenureDropped = tenure;
         this.maxTimeSeconds = maxTimeSeconds;
         this.varfrequency = new int[objFunction.getDomainSize()];
         this.enableDiversification = enableDiversification;
         this.enableIntensification = enableIntensification;
     }
 
+    /**
+     * Names this solver, so that every line it prints starts with the name
+     * between brackets.
+     */
+    public void setLabel(String name) {
+        this.label = "[" + name + "] ";
+    }
+
+    /**
+     * Prints a formatted line prefixed by the label of this solver. The line
+     * is written at once, so lines of concurrent solvers do not mix.
+     */
+    protected void log(String format, Object... args) {
+        if (quiet)
+            return;
+        System.out.println(label + String.format(format, args));
+    }
+
+    /**
+     * Makes this solver a worker of a cooperative search: it publishes every
+     * new best solution to the pool and, after the given number of iterations
+     * without improvement, restarts from a perturbed elite solution found by
+     * another worker.
+     */
+    public void cooperate(ElitePool pool, int workerId, int restartAfter) {
+        this.elitePool = pool;
+        this.workerId = workerId;
+        this.restartAfter = restartAfter;
+    }
+
+    /**
+     * Asks the search, possibly running in another thread, to return its best
+     * solution at the end of the current iteration. The request is dropped
+     * when the next search starts.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Sets the number of seconds allowed for each solve, such as the time
+     * left to a search started late.
+     */
+    public void setMaxTimeSeconds(int maxTimeSeconds) {
+        this.maxTimeSeconds = maxTimeSeconds;
+    }
+
+    /**
+     * Limits the number of iterations of each solve, 0 for no limit (the
+     * default), so that a multi-start search can run many short searches.
+     */
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Suppresses or restores the lines printed by this solver.
+     */
+    public void setQuiet(boolean quiet) {
+        this.quiet = quiet;
+    }
+
+    /**
+     * Ends the search by a path relinking stage over the local optima it
+     * met, which takes the given fraction of the time.
+     *
+     * @param poolSize
+     *            the number of local optima kept.
+     * @param minDistance
+     *            the number of elements on which the kept local optima
+     *            differ pairwise.
+     */
+    public void setPathRelinking(int poolSize, int minDistance, double timeFraction) {
+        this.relinking = new PathRelinking(ObjFunction);
+        this.relinkPoolSize = poolSize;
+        this.relinkMinDistance = minDistance;
+        this.relinkFraction = timeFraction;
+        this.localOptimum = new IntSolution(ObjFunction.getDomainSize());
+    }
+
+    /**
+     * Sets the greediness of the constructive heuristic, 0 for the pure
+     * greedy (the default) up to 1 for a random construction, so that
+     * repeated constructions give GRASP-like diverse starting solutions.
+     *
+     * @throws IllegalArgumentException
+     *             if alpha is not between 0 and 1.
+     */
+    public void setAlpha(double alpha) {
+        if (!(alpha >= 0 && alpha <= 1))
+            throw new IllegalArgumentException("Alpha must be between 0 and 1: " + alpha);
+
+        this.alpha = alpha;
+    }
+
+    /**
+     * Sets separate tabu tenures for the elements added to the solution and
+     * for the elements dropped from it.
+     */
+    public void setTenures(int tenureAdded, int tenureDropped) {
+        this.tenureAdded = tenureAdded;
+        this.tenureDropped = tenureDropped;
+    }
+
+    /**
+     * @return whether moves involving the element are tabu in the current
+     *         iteration.
+     */
+    protected boolean isTabu(int elem) {
+        return iteration <= tabuUntil[elem];
+    }
+
+    /**
+     * @return whether a move of the given cost variation leads below the cost
+     *         of the best solution, which allows it even when tabu. A move
+     *         back to the best solution itself, whose cost the incremental
+     *         updates may have drifted from, does not.
+     */
+    protected boolean aspires(double deltaCost) {
+        return bestSol.cost - (sol.cost + deltaCost) > EPSILON;
+    }
+
+    /**
+     * Forbids the element, which just entered the solution, to leave it
+     * during the next {@link #tenureAdded} iterations.
+     */
+    protected void makeTabuAdded(int elem) {
+        tabuUntil[elem] = iteration + tenureAdded;
+    }
+
+    /**
+     * Forbids the element, which just left the solution, to enter it again
+     * during the next {@link #tenureDropped} iterations.
+     */
+    protected void makeTabuDropped(int elem) {
+        tabuUntil[elem] = iteration + tenureDropped;
+    }
+
     /**
      * The TS constructive heuristic, which is responsible for building a
      * feasible solution by selecting in a greedy fashion, candidate
-     * elements to enter the solution.
+     * elements to enter the solution. The cost variations of the candidates
+     * are evaluated once per step against the contributions kept by the
+     * evaluator, and the RCL is filled from those cached variations.
      *
      * @return A feasible solution to the problem being minimized.
      */
-    public Solution<E> constructiveHeuristic() {
+    public IntSolution constructiveHeuristic() {
 
         CL = makeCL();
         RCL = makeRCL();
         sol = createEmptySol();
+        ObjFunction.bind(sol);
         cost = Double.POSITIVE_INFINITY;
+        if (insertionCosts == null)
+            insertionCosts = new double[ObjFunction.getDomainSize()];
 
         /* Main loop, which repeats until the stopping criteria is reached. */
         while (!constructiveStopCriteria()) {
 
-            Double maxCost = Double.NEGATIVE_INFINITY, minCost = Double.POSITIVE_INFINITY;
+            double maxCost = Double.NEGATIVE_INFINITY, minCost = Double.POSITIVE_INFINITY;
             cost = sol.cost;
             updateCL();
 
@@ -220,8 +489,9 @@ public abstract class AbstractTS<E> {
              * Explore all candidate elements to enter the solution, saving the
              * highest and lowest cost variation achieved by the candidates.
              */
-            for (E c : CL) {
-                Double deltaCost = ObjFunction.evaluateInsertionCost(c, sol);
+            for (int k = 0; k < CL.size(); k++) {
+                double deltaCost = ObjFunction.evaluateInsertion(CL.get(k));
+                insertionCosts[k] = deltaCost;
                 if (deltaCost < minCost)
                     minCost = deltaCost;
                 if (deltaCost > maxCost)
@@ -232,19 +502,17 @@ public abstract class AbstractTS<E> {
              * Among all candidates, insert into the RCL those with the highest
              * performance.
              */
-            for (E c : CL) {
-                Double deltaCost = ObjFunction.evaluateInsertionCost(c, sol);
-                if (deltaCost <= minCost) {
-                    RCL.add(c);
+            double threshold = minCost + alpha * (maxCost - minCost);
+            for (int k = 0; k < CL.size(); k++) {
+                if (insertionCosts[k] <= threshold) {
+                    RCL.add(CL.get(k));
                 }
             }
 
             /* Choose a candidate randomly from the RCL */
             int rndIndex = rng.nextInt(RCL.size());
-            E inCand = RCL.get(rndIndex);
-            CL.remove(inCand);
-            sol.add(inCand);
-            ObjFunction.evaluate(sol);
+            int inCand = RCL.get(rndIndex);
+            ObjFunction.applyInsertion(inCand);
             RCL.clear();
 
         }
@@ -259,51 +527,88 @@ public abstract class AbstractTS<E> {
      *
      * @return The best feasible solution obtained throughout all iterations.
      */
-    public Solution<E> solve() {
+    public IntSolution solve() {
+        return solveFrom(null);
+    }
+
+    /**
+     * Runs the TS from a copy of the given feasible solution instead of a
+     * constructed one, such as a local optimum kept by a multi-start search.
+     *
+     * @param initial
+     *            the solution to start from, which is not modified, or null
+     *            to build one with the constructive heuristic.
+     * @return The best feasible solution obtained throughout all iterations.
+     */
+    public IntSolution solveFrom(IntSolution initial) {
         var start = Instant.now();
+        stopRequested = false;
 
         bestSol = createEmptySol();
-        var initialSolution = constructiveHeuristic();
+        if (initial == null) {
+            var initialSolution = constructiveHeuristic();
+            if (ObjFunction.isFeasible(initialSolution)) {
+                log("Solution from CH:");
+                log("t=%s %s", getElapsedSecs(start), initialSolution);
+            }
+        } else {
+            CL = makeCL();
+            restartFrom(initial, 0.0);
+            log("Initial solution:");
+            log("t=%s %s", getElapsedSecs(start), sol);
+        }
         updateVarFrequency();
-
-        if (ObjFunction.isFeasible(initialSolution)) {
-            System.out.println("Solution from CH:");
-            System.out.println("t=" + getElapsedSecs(start) + " " + initialSolution);
+        log("Solutions from TS:");
+
+        bestSol = new IntSolution(sol);
+        tabuUntil = new int[ObjFunction.getDomainSize()];
+        double searchSeconds = maxTimeSeconds;
+        if (relinking != null) {
+            localOptima = new ElitePool(relinkPoolSize, relinkMinDistance);
+            descending = false;
+            searchSeconds = maxTimeSeconds * (1 - relinkFraction);
         }
-        System.out.println("Solutions from TS:");
-
-        bestSol = new Solution<>(sol);
-        TL = makeTL();
         int lastImproveIteration = 0;
+        int lastRestartIteration = 0;
         int countDiversifications = 0;
-        int it = 1;
-        while (getElapsedSecs(start) < maxTimeSeconds) {
+        iteration = 1;
+        while (getElapsedSecs(start) < searchSeconds && !stopRequested
+                && (maxIterations == 0 || iteration <= maxIterations)) {
 
+            double previousCost = sol.cost;
             neighborhoodMove();
             updateVarFrequency();
+            if (relinking != null) {
+                trackLocalOptimum(previousCost);
+            }
 
-            if (bestSol.cost > sol.cost) {
-                bestSol = new Solution<>(sol);
+            //infeasible solutions, reachable when they are penalized instead of rejected, are never the best
+            if (bestSol.cost - sol.cost > EPSILON && ObjFunction.isFeasible()) {
+                bestSol.copyFrom(sol);
 
                 if (verboseLevel == 2) {
-                    System.out.printf("it=%d t=%.2f bestSol=%s\n", it, getElapsedSecs(start), bestSol);
+                    log("it=%d t=%.2f bestSol=%s", iteration, getElapsedSecs(start), bestSol);
                 } else if (verboseLevel == 1) {
-                    System.out.printf("it=%d t=%.2f cost=%.2f size=%d\n", it, getElapsedSecs(start), bestSol.cost, bestSol.size());
+                    log("it=%d t=%.2f cost=%.2f size=%d", iteration, getElapsedSecs(start), bestSol.cost, bestSol.size());
                 }
 
-                if (enableIntensification && it - lastImproveIteration > 1) {
+                if (enableIntensification && iteration - lastImproveIteration > 1) {
                     var solAfterIntensify = intensify();
-                    if (solAfterIntensify != null && solAfterIntensify.cost < bestSol.cost) {
-                        bestSol = new Solution<>(solAfterIntensify);
-                        System.out.println("improved sol after intensification:");
-                        System.out.printf("it=%d t=%.2f bestSol=%s\n", it, getElapsedSecs(start), bestSol);
+                    if (solAfterIntensify != null && solAfterIntensify.cost < bestSol.cost && ObjFunction.isFeasible()) {
+                        bestSol.copyFrom(solAfterIntensify);
+                        log("improved sol after intensification:");
+                        log("it=%d t=%.2f bestSol=%s", iteration, getElapsedSecs(start), bestSol);
                     }
                 }
 
-                lastImproveIteration = it;
+                lastImproveIteration = iteration;
+
+                if (elitePool != null) {
+                    elitePool.publish(workerId, bestSol);
+                }
             }
 
-            var iterationsSinceLastImprove = it - lastImproveIteration;
+            var iterationsSinceLastImprove = iteration - lastImproveIteration;
 
             if (enableDiversification) {
                 var diversified = checkDiversificationTrigger(iterationsSinceLastImprove, countDiversifications);
@@ -312,12 +617,82 @@ public abstract class AbstractTS<E> {
                 }
             }
 
-            it++;
+            if (elitePool != null && iteration - Math.max(lastImproveIteration, lastRestartIteration) >= restartAfter) {
+                var elite = elitePool.pick(workerId, rng);
+                if (elite != null) {
+                    if (verboseLevel == 2)
+                        log("%d iterations without improvement, restarting from an elite of worker %d with cost=%.2f",
+                                iterationsSinceLastImprove, elite.worker, elite.sol.cost);
+                    restartFrom(elite.sol, RESTART_PERTURBATION);
+                    Arrays.fill(tabuUntil, 0);
+                }
+                lastRestartIteration = iteration;
+            }
+
+            iteration++;
+        }
+
+        if (relinking != null) {
+            relinkLocalOptima(start);
         }
 
         return bestSol;
     }
 
+    /**
+     * Offers the last solution reached by an improving move to the pool of
+     * local optima once a move does not improve it.
+     */
+    private void trackLocalOptimum(double previousCost) {
+        if (sol.cost < previousCost) {
+            localOptimum.copyFrom(sol);
+            localOptimumFeasible = ObjFunction.isFeasible();
+            descending = true;
+        } else if (descending) {
+            if (localOptimumFeasible) {
+                localOptima.publish(workerId, localOptimum);
+            }
+            descending = false;
+        }
+    }
+
+    /**
+     * Relinks every ordered pair of kept local optima, offering the result of
+     * each path back to the pool, until the time limit or a round in which
+     * no result enters the pool. Each round relinks the pairs of the pool as
+     * it was when the round began, so the results entering the pool during
+     * the round are only relinked by the next one.
+     */
+    private void relinkLocalOptima(Instant start) {
+        localOptima.publish(workerId, bestSol);
+        log("Path relinking between %d local optima:", localOptima.size());
+
+        boolean entered = true;
+        while (entered && getElapsedSecs(start) < maxTimeSeconds && !stopRequested) {
+            entered = false;
+            var round = localOptima.snapshot();
+            for (int a = 0; a < round.size(); a++) {
+                for (int b = 0; b < round.size() && getElapsedSecs(start) < maxTimeSeconds; b++) {
+                    if (a == b) {
+                        continue;
+                    }
+                    var result = relinking.relink(round.get(a).sol, round.get(b).sol);
+                    if (result == null || !ObjFunction.isFeasible()) {
+                        continue;
+                    }
+                    entered |= localOptima.publish(workerId, result);
+                    if (bestSol.cost - result.cost > EPSILON) {
+                        bestSol.copyFrom(result);
+                        log("t=%.2f cost=%.2f size=%d", getElapsedSecs(start), bestSol.cost, bestSol.size());
+                        if (elitePool != null) {
+                            elitePool.publish(workerId, bestSol);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
     private boolean checkDiversificationTrigger(int iterationsSinceLastImprove, int countDiversifications) {
         int[] diversifyAt = {50, 150, 500};
         double[] diversifyPercents = {0.05, 0.05, 0.1};
@@ -329,7 +704,7 @@ public abstract class AbstractTS<E> {
         int triggerThreshold = diversifyAt[countDiversifications];
         if (iterationsSinceLastImprove >= triggerThreshold) {
             double percent = diversifyPercents[countDiversifications];
-            System.out.printf("%d iterations without improvement, diversifying...\n", iterationsSinceLastImprove);
+            log("%d iterations without improvement, diversifying...", iterationsSinceLastImprove);
             diverfisyByRestart(percent);
             return true;
         }
@@ -342,7 +717,7 @@ public abstract class AbstractTS<E> {
      * @return true if the criteria is met.
      */
     public Boolean constructiveStopCriteria() {
-        return ObjFunction.isFeasible(sol);
+        return ObjFunction.isFeasible();
     }
 
     private double getElapsedSecs(Instant start) {
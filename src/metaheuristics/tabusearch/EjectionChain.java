@@ -0,0 +1,110 @@
+package metaheuristics.tabusearch;
+
+import java.util.function.IntPredicate;
+
+import problems.IntEvaluator;
+import solutions.IntSolution;
+
+/**
+ * Builds variable-depth ejection chains of single flips on the solution
+ * bound to an evaluator. Each step of a chain inserts or removes the element
+ * whose flip is the best admissible one given the previous flips, whatever
+ * its sign, and no element is flipped twice in the same chain. The chain is
+ * then cut at its best prefix, which is kept only when it improves the
+ * solution. Every step is evaluated incrementally through the evaluator.
+ */
+public class EjectionChain {
+
+    private final IntEvaluator evaluator;
+
+    /**
+     * the maximum number of flips of a chain
+     */
+    private final int maxDepth;
+
+    /**
+     * the elements flipped by the last chain, in order
+     */
+    private final int[] flips;
+
+    /**
+     * inChain[e] = whether element e was already flipped by the chain being
+     * built
+     */
+    private final boolean[] inChain;
+
+    public EjectionChain(IntEvaluator evaluator, int maxDepth) {
+        this.evaluator = evaluator;
+        this.maxDepth = maxDepth;
+        this.flips = new int[maxDepth];
+        this.inChain = new boolean[evaluator.getDomainSize()];
+    }
+
+    /**
+     * Builds a chain on the bound solution and keeps its best prefix when it
+     * improves the solution cost; otherwise the solution is left as it was.
+     *
+     * @param sol
+     *            the solution bound to the evaluator.
+     * @param tabu
+     *            which elements may not be flipped, unless the flip leads to
+     *            a cost below the aspiration cost.
+     * @param aspirationCost
+     *            the cost below which tabu flips are allowed.
+     * @return the number of flips kept, which are given by {@link #getFlip}.
+     */
+    public int build(IntSolution sol, IntPredicate tabu, double aspirationCost) {
+        int n = evaluator.getDomainSize();
+        double bestCost = sol.cost;
+        int depth = 0, bestDepth = 0;
+
+        while (depth < maxDepth) {
+            int bestElem = -1;
+            double bestDelta = Double.POSITIVE_INFINITY;
+            for (int e = 0; e < n; e++) {
+                if (inChain[e]) {
+                    continue;
+                }
+                double delta = sol.contains(e) ? evaluator.evaluateRemoval(e) : evaluator.evaluateInsertion(e);
+                if (delta < bestDelta && (!tabu.test(e) || sol.cost + delta < aspirationCost)) {
+                    bestDelta = delta;
+                    bestElem = e;
+                }
+            }
+            if (bestElem < 0) {
+                break;
+            }
+
+            flip(sol, bestElem);
+            inChain[bestElem] = true;
+            flips[depth++] = bestElem;
+            if (bestCost - sol.cost > AbstractTS.EPSILON) {
+                bestCost = sol.cost;
+                bestDepth = depth;
+            }
+        }
+
+        for (int k = 0; k < depth; k++) {
+            inChain[flips[k]] = false;
+        }
+        while (depth > bestDepth) {
+            flip(sol, flips[--depth]);
+        }
+        return bestDepth;
+    }
+
+    /**
+     * @return the k-th element flipped by the kept prefix of the last chain.
+     */
+    public int getFlip(int k) {
+        return flips[k];
+    }
+
+    private void flip(IntSolution sol, int elem) {
+        if (sol.contains(elem)) {
+            evaluator.applyRemoval(elem);
+        } else {
+            evaluator.applyInsertion(elem);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package metaheuristics.tabusearch;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.random.RandomGenerator;
+
+import solutions.IntSolution;
+
+/**
+ * A bounded pool of the best solutions published by tabu search workers
+ * running concurrently. The pool is lock-free: its content is an immutable
+ * array of entries sorted by cost, replaced as a whole by compare-and-set, so
+ * a worker reading it never waits for a worker publishing to it.
+ */
+public class ElitePool {
+
+    /**
+     * a solution in the pool together with the worker that found it. The
+     * solution is a private copy and is never modified after publishing.
+     */
+    public static final class Elite {
+        public final int worker;
+        public final IntSolution sol;
+
+        private Elite(int worker, IntSolution sol) {
+            this.worker = worker;
+            this.sol = sol;
+        }
+    }
+
+    /**
+     * the maximum number of solutions kept in the pool
+     */
+    private final int capacity;
+
+    /**
+     * the current content of the pool, sorted by increasing cost
+     */
+    private final AtomicReference<Elite[]> elites = new AtomicReference<>(new Elite[0]);
+
+    /**
+     * the smallest number of elements on which a solution must differ from
+     * every elite to enter the pool without replacing the elite closest to it
+     */
+    private final int minDistance;
+
+    public ElitePool(int capacity) {
+        this(capacity, 1);
+    }
+
+    /**
+     * Creates a pool whose elites differ pairwise on at least minDistance
+     * elements, so that it keeps solutions from several regions of the
+     * search space rather than variants of the same one.
+     */
+    public ElitePool(int capacity, int minDistance) {
+        this.capacity = capacity;
+        this.minDistance = minDistance;
+    }
+
+    /**
+     * Offers a solution to the pool. When it differs from every elite on at
+     * least minDistance elements, it enters if the pool is not full or if it
+     * is better than the worst elite, which then leaves. Otherwise it only
+     * replaces the elite closest to it, if it is better than that elite.
+     *
+     * @return whether the solution entered the pool.
+     */
+    public boolean publish(int worker, IntSolution sol) {
+        Elite entry = null;
+        while (true) {
+            Elite[] current = elites.get();
+            if (current.length == capacity && sol.cost >= current[current.length - 1].sol.cost) {
+                return false;
+            }
+            int closest = -1, closestDistance = minDistance;
+            for (int k = 0; k < current.length; k++) {
+                int d = distance(current[k].sol, sol);
+                if (d < closestDistance) {
+                    closest = k;
+                    closestDistance = d;
+                }
+            }
+            if (closest >= 0 && sol.cost >= current[closest].sol.cost) {
+                return false;
+            }
+
+            if (entry == null) {
+                entry = new Elite(worker, new IntSolution(sol));
+            }
+            int leaving = closest >= 0 ? closest : current.length == capacity ? current.length - 1 : -1;
+            Elite[] next = new Elite[leaving >= 0 ? current.length : current.length + 1];
+            int m = 0;
+            boolean placed = false;
+            for (int k = 0; k < current.length; k++) {
+                if (!placed && current[k].sol.cost > sol.cost) {
+                    next[m++] = entry;
+                    placed = true;
+                }
+                if (k != leaving) {
+                    next[m++] = current[k];
+                }
+            }
+            if (!placed) {
+                next[m] = entry;
+            }
+            if (elites.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Chooses randomly an elite found by a worker other than the given one.
+     * When every elite comes from that worker, any elite is chosen.
+     *
+     * @return the chosen elite, or null when the pool is empty.
+     */
+    public Elite pick(int worker, RandomGenerator rng) {
+        Elite[] current = elites.get();
+        int others = 0;
+        for (Elite e : current) {
+            if (e.worker != worker) {
+                others++;
+            }
+        }
+        if (others == 0) {
+            return current.length == 0 ? null : current[rng.nextInt(current.length)];
+        }
+        int k = rng.nextInt(others);
+        for (Elite e : current) {
+            if (e.worker != worker && k-- == 0) {
+                return e;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the best elite, or null when the pool is empty.
+     */
+    public Elite best() {
+        Elite[] current = elites.get();
+        return current.length == 0 ? null : current[0];
+    }
+
+    /**
+     * @return the elite of the given rank, 0 being the best, or null when the
+     *         pool holds fewer elites.
+     */
+    public Elite get(int rank) {
+        Elite[] current = elites.get();
+        return rank < current.length ? current[rank] : null;
+    }
+
+    /**
+     * @return the elites currently in the pool, best first. The list does not
+     *         change when solutions are published afterwards.
+     */
+    public List<Elite> snapshot() {
+        return List.of(elites.get());
+    }
+
+    /**
+     * @return the best elite found by the given worker, or null when the pool
+     *         has none.
+     */
+    public Elite best(int worker) {
+        for (Elite e : elites.get()) {
+            if (e.worker == worker) {
+                return e;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the number of solutions in the pool.
+     */
+    public int size() {
+        return elites.get().length;
+    }
+
+    /**
+     * @return the number of elements on which two solutions differ.
+     */
+    public static int distance(IntSolution a, IntSolution b) {
+        int common = 0;
+        for (int k = 0; k < a.size(); k++) {
+            if (b.contains(a.get(k))) {
+                common++;
+            }
+        }
+        return a.size() + b.size() - 2 * common;
+    }
+}
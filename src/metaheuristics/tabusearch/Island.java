@@ -0,0 +1,170 @@
+package metaheuristics.tabusearch;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import problems.Evaluator;
+import solutions.IntSolution;
+
+/**
+ * One island of a distributed search: a tabu search running in this process
+ * and exchanging solutions with an {@link IslandCoordinator} over TCP. The
+ * island sends its new best solutions to the coordinator, and the global
+ * incumbent received back enters the elite pool of the search as a solution
+ * of another worker, so the search restarts from it when it stalls.
+ */
+public class Island {
+
+    /**
+     * the worker identifiers of the local search and of the migrants in the
+     * local elite pool
+     */
+    private static final int LOCAL = 0, REMOTE = 1;
+
+    /**
+     * how often, in milliseconds, the island sends its best solution when it
+     * improved
+     */
+    private static final long PUBLISH_INTERVAL = 500;
+
+    private final String name;
+    private final AbstractTS solver;
+    private final ElitePool elitePool;
+
+    /**
+     * the evaluator of the problem solved, used only by the receiving thread
+     * to evaluate the migrants instead of trusting the costs they carry
+     */
+    private final Evaluator migrantEvaluator;
+
+    /**
+     * the cost of the last solution sent to the coordinator
+     */
+    private double sentCost = Double.POSITIVE_INFINITY;
+
+    /**
+     * @param migrantEvaluator
+     *            an evaluator of the problem solved, which the solver must
+     *            not use, since the migrants are evaluated concurrently with
+     *            the search.
+     */
+    public Island(String name, AbstractTS solver, Evaluator migrantEvaluator, int poolSize, int restartAfter) {
+        this.name = name;
+        this.solver = solver;
+        this.migrantEvaluator = migrantEvaluator;
+        this.elitePool = new ElitePool(poolSize);
+        solver.cooperate(elitePool, LOCAL, restartAfter);
+    }
+
+    /**
+     * Connects to the coordinator and runs the search until its time limit or
+     * until the coordinator stops it.
+     *
+     * @return the best solution found by this island.
+     */
+    public IntSolution run(String host, int port) throws IOException {
+        try (var socket = new Socket(host, port);
+             var in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             var out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8)) {
+
+            out.println(IslandProtocol.HELLO + " " + name);
+
+            var receiver = new Thread(() -> receive(in), name + "-receiver");
+            receiver.setDaemon(true);
+            receiver.start();
+
+            var publisher = new Thread(() -> publish(out), name + "-publisher");
+            publisher.setDaemon(true);
+            publisher.start();
+
+            var bestSol = solver.solve();
+
+            publisher.interrupt();
+            synchronized (this) {
+                sendBest(out, bestSol);
+                out.println(IslandProtocol.DONE);
+            }
+            return bestSol;
+        }
+    }
+
+    /**
+     * Handles the messages of the coordinator until it closes the connection.
+     * A malformed or unexpected message is printed and skipped, so that it
+     * does not end the migrations.
+     */
+    private void receive(BufferedReader in) {
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                try {
+                    switch (IslandProtocol.typeOf(line)) {
+                        case IslandProtocol.MIGRANT:
+                            receiveMigrant(IslandProtocol.decode(line, solver.createEmptySol()));
+                            break;
+                        case IslandProtocol.STOP:
+                            solver.stop();
+                            return;
+                        default:
+                            throw new IllegalArgumentException("Unexpected message: " + line);
+                    }
+                } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                    //an element outside of the instance is out of the bounds of the solution
+                    System.out.printf("ignored message from the coordinator: %s\n", e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            // the coordinator is gone, the island goes on alone
+        }
+    }
+
+    /**
+     * Evaluates a migrant and, when it is feasible, offers it to the local
+     * elite pool with the cost found here.
+     *
+     * @throws IllegalArgumentException
+     *             if the migrant is infeasible.
+     */
+    private void receiveMigrant(IntSolution migrant) {
+        if (!migrantEvaluator.isFeasible(migrant)) {
+            throw new IllegalArgumentException("Infeasible migrant: " + migrant);
+        }
+        migrantEvaluator.evaluate(migrant);
+        elitePool.publish(REMOTE, migrant);
+    }
+
+    /**
+     * Periodically sends the best solution found by the local search, when it
+     * improved since the last one sent.
+     */
+    private void publish(PrintWriter out) {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Thread.sleep(PUBLISH_INTERVAL);
+                var elite = elitePool.best(LOCAL);
+                if (elite != null) {
+                    synchronized (this) {
+                        sendBest(out, elite.sol);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            // the search is over
+        }
+    }
+
+    /**
+     * Sends the solution when it improves the last one sent by more than
+     * {@link AbstractTS#EPSILON}.
+     */
+    private void sendBest(PrintWriter out, IntSolution sol) {
+        if (sol.cost < sentCost - AbstractTS.EPSILON) {
+            out.println(IslandProtocol.encode(IslandProtocol.BEST, sol));
+            sentCost = sol.cost;
+        }
+    }
+}
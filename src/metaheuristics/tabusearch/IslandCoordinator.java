@@ -0,0 +1,204 @@
+package metaheuristics.tabusearch;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The coordinator of a distributed search made of {@link Island} processes.
+ * It keeps the global incumbent, sends it as a migrant to every other island
+ * each time an island improves it, and stops all islands when its time limit
+ * is reached or when every island finished.
+ */
+public class IslandCoordinator {
+
+    /**
+     * how long, in milliseconds, accepting a connection may block before the
+     * time limit is checked again
+     */
+    private static final int ACCEPT_TIMEOUT = 500;
+
+    /**
+     * how long, in milliseconds, an island may take to finish once stopped
+     */
+    private static final long STOP_TIMEOUT = 10000;
+
+    private final int port;
+    private final int islands;
+
+    private final List<Connection> connections = new CopyOnWriteArrayList<>();
+    private final CountDownLatch finished;
+
+    /**
+     * the global incumbent, as the fields of the BEST message that brought it
+     */
+    private double bestCost = Double.POSITIVE_INFINITY;
+    private String bestMessage;
+    private String bestIsland;
+
+    /**
+     * @param port
+     *            the TCP port the islands connect to.
+     * @param islands
+     *            the number of islands expected to join the search.
+     */
+    public IslandCoordinator(int port, int islands) {
+        this.port = port;
+        this.islands = islands;
+        this.finished = new CountDownLatch(islands);
+    }
+
+    /**
+     * Accepts the islands and relays their solutions until every island
+     * finished or maxTimeSeconds elapsed, then stops them all.
+     *
+     * @return the message holding the global incumbent, or null when no
+     *         island sent a solution.
+     */
+    public String run(int maxTimeSeconds) throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(maxTimeSeconds);
+
+        try (var server = new ServerSocket(port)) {
+            server.setSoTimeout(ACCEPT_TIMEOUT);
+            System.out.printf("waiting for %d islands on port %d\n", islands, port);
+            while (connections.size() < islands && System.nanoTime() < deadline) {
+                try {
+                    var connection = new Connection(server.accept());
+                    connections.add(connection);
+                    connection.start();
+                } catch (SocketTimeoutException e) {
+                    // check the time limit again
+                }
+            }
+
+            finished.await(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+
+            for (var connection : connections) {
+                connection.send(IslandProtocol.STOP);
+            }
+            for (var connection : connections) {
+                connection.join(STOP_TIMEOUT);
+            }
+        }
+
+        synchronized (this) {
+            if (bestMessage != null) {
+                String[] fields = bestMessage.split(" ");
+                System.out.printf("Best solution from islands: island=%s cost=[%s], elements=[%s]\n",
+                        bestIsland, fields[1], fields[2]);
+            }
+            return bestMessage;
+        }
+    }
+
+    /**
+     * Records a solution sent by an island and, when it improves the global
+     * incumbent by more than {@link AbstractTS#EPSILON}, sends it to all
+     * other islands, so that an incumbent found again with a slightly
+     * different rounding of its cost is not relayed as a new one.
+     *
+     * @throws IllegalArgumentException
+     *             if the message is malformed.
+     */
+    private void offer(Connection from, String message) {
+        String migrant;
+        synchronized (this) {
+            double cost = IslandProtocol.costOf(message);
+            if (!(cost < bestCost - AbstractTS.EPSILON)) {
+                return;
+            }
+            bestCost = cost;
+            bestMessage = message;
+            bestIsland = from.name;
+            System.out.printf("island=%s cost=%.2f\n", from.name, cost);
+            migrant = IslandProtocol.MIGRANT + message.substring(IslandProtocol.BEST.length());
+        }
+        for (var connection : connections) {
+            if (connection != from) {
+                connection.send(migrant);
+            }
+        }
+    }
+
+    /**
+     * The connection with one island, whose messages are read by a thread of
+     * its own.
+     */
+    private final class Connection extends Thread {
+        private final Socket socket;
+        private final PrintWriter out;
+        private String name = "?";
+        private boolean done;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+            setDaemon(true);
+        }
+
+        void send(String message) {
+            out.println(message);
+        }
+
+        @Override
+        public void run() {
+            try (socket;
+                 var in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    try {
+                        handle(line);
+                    } catch (IllegalArgumentException e) {
+                        System.out.printf("island=%s ignored message: %s\n", name, e.getMessage());
+                    }
+                }
+            } catch (IOException e) {
+                // the island is gone
+            } finally {
+                finish();
+            }
+        }
+
+        /**
+         * Handles a message of the island.
+         *
+         * @throws IllegalArgumentException
+         *             if the message is malformed or unexpected.
+         */
+        private void handle(String line) {
+            switch (IslandProtocol.typeOf(line)) {
+                case IslandProtocol.HELLO:
+                    if (line.length() <= IslandProtocol.HELLO.length() + 1) {
+                        throw new IllegalArgumentException("Malformed message: " + line);
+                    }
+                    name = line.substring(IslandProtocol.HELLO.length() + 1);
+                    System.out.printf("island %s joined\n", name);
+                    break;
+                case IslandProtocol.BEST:
+                    offer(this, line);
+                    break;
+                case IslandProtocol.DONE:
+                    finish();
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unexpected message: " + line);
+            }
+        }
+
+        private void finish() {
+            if (!done) {
+                done = true;
+                finished.countDown();
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package metaheuristics.tabusearch;
+
+import solutions.IntSolution;
+
+/**
+ * The line-based text protocol spoken between islands and their coordinator.
+ * Every message is one line made of a keyword followed by its fields,
+ * separated by spaces:
+ * <ul>
+ * <li>{@code HELLO <name>}: an island joins the search;</li>
+ * <li>{@code BEST <cost> <elements>}: an island found a new best solution;</li>
+ * <li>{@code MIGRANT <cost> <elements>}: the coordinator sends the global
+ * incumbent to an island;</li>
+ * <li>{@code DONE}: an island reached its time limit;</li>
+ * <li>{@code STOP}: the coordinator asks an island to stop.</li>
+ * </ul>
+ * The elements are separated by commas, and an empty solution is written as
+ * {@code -}.
+ */
+final class IslandProtocol {
+
+    static final String HELLO = "HELLO";
+    static final String BEST = "BEST";
+    static final String MIGRANT = "MIGRANT";
+    static final String DONE = "DONE";
+    static final String STOP = "STOP";
+
+    private IslandProtocol() {
+    }
+
+    /**
+     * @return the message of the given type carrying the solution.
+     */
+    static String encode(String type, IntSolution sol) {
+        var line = new StringBuilder(type).append(' ').append(sol.cost).append(' ');
+        if (sol.isEmpty()) {
+            line.append('-');
+        }
+        for (int k = 0; k < sol.size(); k++) {
+            if (k > 0) {
+                line.append(',');
+            }
+            line.append(sol.get(k));
+        }
+        return line.toString();
+    }
+
+    /**
+     * Reads the solution carried by a BEST or MIGRANT message into an empty
+     * solution.
+     *
+     * @return the given solution.
+     * @throws IllegalArgumentException
+     *             if the message is malformed or its cost is not finite.
+     */
+    static IntSolution decode(String line, IntSolution into) {
+        String[] fields = fields(line);
+        if (!fields[2].equals("-")) {
+            for (String field : fields[2].split(",")) {
+                int elem = Integer.parseInt(field);
+                if (into.contains(elem)) {
+                    throw new IllegalArgumentException("Repeated element: " + line);
+                }
+                into.add(elem);
+            }
+        }
+        into.cost = cost(fields, line);
+        return into;
+    }
+
+    /**
+     * @return the cost of the solution carried by a BEST or MIGRANT message.
+     * @throws IllegalArgumentException
+     *             if the message is malformed or its cost is not finite.
+     */
+    static double costOf(String line) {
+        return cost(fields(line), line);
+    }
+
+    //a NaN or infinite cost would rank the solution above every other one
+    private static double cost(String[] fields, String line) {
+        double cost = Double.parseDouble(fields[1]);
+        if (!Double.isFinite(cost)) {
+            throw new IllegalArgumentException("Cost not finite: " + line);
+        }
+        return cost;
+    }
+
+    private static String[] fields(String line) {
+        String[] fields = line.split(" ");
+        if (fields.length != 3) {
+            throw new IllegalArgumentException("Malformed message: " + line);
+        }
+        return fields;
+    }
+
+    /**
+     * @return the keyword of the message.
+     */
+    static String typeOf(String line) {
+        int space = line.indexOf(' ');
+        return space < 0 ? line : line.substring(0, space);
+    }
+}
@@ -0,0 +1,127 @@
+package metaheuristics.tabusearch;
+
+import problems.IntEvaluator;
+import solutions.IntSet;
+import solutions.IntSolution;
+
+/**
+ * Relinks pairs of elite solutions through the solution bound to an
+ * evaluator. The path starts at the initial solution and, at each step,
+ * flips the element with the best cost variation among those on which it
+ * still differs from the guiding solution, skipping removals that would make
+ * it infeasible. Inserting the elements of the guiding solution never breaks
+ * feasibility and, once they are all in, removing the others never does
+ * either, so the path always reaches the guiding solution. Every step is
+ * evaluated incrementally through the evaluator. The best solution strictly
+ * inside the path is then improved by a best-improvement descent.
+ */
+public class PathRelinking {
+
+    private final IntEvaluator evaluator;
+
+    /**
+     * the elements on which the solution of the path still differs from the
+     * guiding solution
+     */
+    private final IntSet differing;
+
+    /**
+     * the solution walking along the path
+     */
+    private final IntSolution current;
+
+    /**
+     * the best solution found so far strictly inside the path
+     */
+    private final IntSolution best;
+
+    public PathRelinking(IntEvaluator evaluator) {
+        this.evaluator = evaluator;
+        int n = evaluator.getDomainSize();
+        this.differing = new IntSet(n);
+        this.current = new IntSolution(n);
+        this.best = new IntSolution(n);
+    }
+
+    /**
+     * Walks from the initial solution to the guiding one, both feasible, and
+     * improves the best solution strictly between them by a descent. The
+     * solution bound to the evaluator is replaced.
+     *
+     * @return the improved solution, which is overwritten by the next call,
+     *         or null when the solutions differ on fewer than two elements.
+     */
+    public IntSolution relink(IntSolution initial, IntSolution guiding) {
+        differing.clear();
+        for (int k = 0; k < initial.size(); k++) {
+            if (!guiding.contains(initial.get(k))) {
+                differing.add(initial.get(k));
+            }
+        }
+        for (int k = 0; k < guiding.size(); k++) {
+            if (!initial.contains(guiding.get(k))) {
+                differing.add(guiding.get(k));
+            }
+        }
+        if (differing.size() < 2) {
+            return null;
+        }
+
+        current.copyFrom(initial);
+        evaluator.bind(current);
+        best.cost = Double.POSITIVE_INFINITY;
+        while (differing.size() > 1) {
+            int bestElem = -1;
+            double bestDelta = Double.POSITIVE_INFINITY;
+            for (int k = 0; k < differing.size(); k++) {
+                int e = differing.get(k);
+                double delta = current.contains(e) ? evaluator.evaluateRemoval(e) : evaluator.evaluateInsertion(e);
+                if (delta < bestDelta) {
+                    bestDelta = delta;
+                    bestElem = e;
+                }
+            }
+            flip(bestElem);
+            differing.remove(bestElem);
+            if (current.cost < best.cost) {
+                best.copyFrom(current);
+            }
+        }
+
+        current.copyFrom(best);
+        evaluator.bind(current);
+        descend();
+        return current;
+    }
+
+    /**
+     * Applies the best improving flip to the bound solution until none
+     * improves it.
+     */
+    private void descend() {
+        int n = evaluator.getDomainSize();
+        while (true) {
+            int bestElem = -1;
+            double bestDelta = -AbstractTS.EPSILON;
+            for (int e = 0; e < n; e++) {
+                double delta = current.contains(e) ? evaluator.evaluateRemoval(e) : evaluator.evaluateInsertion(e);
+                if (delta < bestDelta) {
+                    bestDelta = delta;
+                    bestElem = e;
+                }
+            }
+            if (bestElem < 0) {
+                return;
+            }
+            flip(bestElem);
+        }
+    }
+
+    private void flip(int elem) {
+        if (current.contains(elem)) {
+            evaluator.applyRemoval(elem);
+        } else {
+            evaluator.applyInsertion(elem);
+        }
+    }
+}
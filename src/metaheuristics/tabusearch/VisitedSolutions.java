@@ -0,0 +1,99 @@
+package metaheuristics.tabusearch;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * A compact memory of the solutions visited by a search, keyed by their
+ * 64-bit Zobrist hashes: the hash of a solution is the xor of a random key
+ * per element in it, so flipping an element updates it in O(1). The table
+ * uses open addressing with a short probe window and a fixed capacity; when
+ * the window of a new hash is full its oldest visit is forgotten, which
+ * keeps the memory bounded over long runs while the recent visits, those
+ * that tell a cycle, are kept.
+ */
+public class VisitedSolutions {
+
+    /**
+     * how many consecutive slots a hash may be stored in
+     */
+    private static final int PROBE_WINDOW = 8;
+
+    /**
+     * the random key of each element
+     */
+    private final long[] keys;
+
+    private final long[] hashes;
+
+    /**
+     * iterations[k] = the iteration of the last visit of hashes[k], or 0 when
+     * the slot is empty
+     */
+    private final int[] iterations;
+
+    private final int mask;
+
+    /**
+     * @param domainSize
+     *            the number of elements.
+     * @param capacityBits
+     *            the base 2 logarithm of the number of slots.
+     * @param seed
+     *            the seed of the element keys.
+     */
+    public VisitedSolutions(int domainSize, int capacityBits, long seed) {
+        var rng = new SplittableRandom(seed);
+        keys = new long[domainSize];
+        for (int e = 0; e < domainSize; e++) {
+            keys[e] = rng.nextLong();
+        }
+        hashes = new long[1 << capacityBits];
+        iterations = new int[1 << capacityBits];
+        mask = (1 << capacityBits) - 1;
+    }
+
+    /**
+     * @return the key to xor into the hash of a solution when the element
+     *         enters or leaves it.
+     */
+    public long key(int elem) {
+        return keys[elem];
+    }
+
+    /**
+     * Records a visit to the solution with the given hash.
+     *
+     * @param iteration
+     *            the current iteration, at least 1.
+     * @return the iteration of the previous visit, or 0 when the solution was
+     *         not visited before (or its visit was forgotten).
+     */
+    public int visit(long hash, int iteration) {
+        int home = (int) (hash ^ (hash >>> 32)) & mask;
+        int oldest = home;
+        for (int p = 0; p < PROBE_WINDOW; p++) {
+            int k = (home + p) & mask;
+            if (iterations[k] == 0) {
+                hashes[k] = hash;
+                iterations[k] = iteration;
+                return 0;
+            }
+            if (hashes[k] == hash) {
+                int previous = iterations[k];
+                iterations[k] = iteration;
+                return previous;
+            }
+            if (iterations[k] < iterations[oldest]) {
+                oldest = k;
+            }
+        }
+        hashes[oldest] = hash;
+        iterations[oldest] = iteration;
+        return 0;
+    }
+
+    public void clear() {
+        Arrays.fill(iterations, 0);
+    }
+}
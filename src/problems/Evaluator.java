@@ -1,19 +1,17 @@
 package problems;
 
-import solutions.Solution;
-
-import java.util.ArrayList;
+import solutions.IntSet;
+import solutions.IntSolution;
 
 /**
  * The Evaluator interface gives to a problem the required functionality to
- * obtain a mapping of a solution (n-dimensional array of elements of generic
- * type E (domain)) to a Double (image). It is a useful representation of an
- * objective function for an optimization problem.
+ * obtain a mapping of a solution (set of int elements of the domain) to a
+ * Double (image). It is a useful representation of an objective function for
+ * an optimization problem.
  *
  * @author ccavellucci, fusberti, ecembranel
- * @param <E>
  */
-public interface Evaluator<E> {
+public interface Evaluator {
 
     /**
      * Gives the size of the problem domain. Typically this is the number of
@@ -31,7 +29,7 @@ public interface Evaluator<E> {
      *            the solution under evaluation.
      * @return the evaluation of a solution.
      */
-    public abstract Double evaluate(Solution<E> sol);
+    public abstract Double evaluate(IntSolution sol);
 
     /**
      * Evaluates the cost variation of inserting an element into a solution
@@ -45,7 +43,7 @@ public interface Evaluator<E> {
      * @return the cost variation resulting from the element insertion into the
      *         solution.
      */
-    public abstract Double evaluateInsertionCost(E elem, Solution<E> sol);
+    public abstract Double evaluateInsertionCost(Integer elem, IntSolution sol);
 
     /**
      * Evaluates the cost variation of removing an element into a solution
@@ -59,7 +57,7 @@ public interface Evaluator<E> {
      * @return the cost variation resulting from the element removal pf the the
      *         solution.
      */
-    public abstract Double evaluateRemovalCost(E elem, Solution<E> sol);
+    public abstract Double evaluateRemovalCost(Integer elem, IntSolution sol);
 
     /**
      * Evaluates the cost variation of exchanging candidates, one being
@@ -75,9 +73,41 @@ public interface Evaluator<E> {
      *            evaluated.
      * @return the cost variation resulting from the elements exchange.
      */
-    public abstract Double evaluateExchangeCost(E elemIn, E elemOut, Solution<E> sol);
+    public abstract Double evaluateExchangeCost(Integer elemIn, Integer elemOut, IntSolution sol);
+
+    public abstract Double evaluateDoubleExchangeCost(Integer in, Integer in2, Integer out, IntSolution sol);
+
+    /**
+     * Makes the evaluator track the given solution, so that the cost
+     * variations of moves over it can be computed from incrementally
+     * maintained state. The cost of the solution is evaluated as well.
+     *
+     * @param sol
+     *            the solution to be tracked.
+     */
+    public abstract void bind(IntSolution sol);
+
+    /**
+     * Inserts an element into a solution, updating its cost by the insertion
+     * cost variation instead of evaluating the whole solution again.
+     *
+     * @param elem
+     *            the element to be inserted.
+     * @param sol
+     *            the solution receiving the element.
+     */
+    public abstract void applyInsertion(Integer elem, IntSolution sol);
 
-    public abstract Double evaluateDoubleExchangeCost(Integer in, Integer in2, Integer out, Solution<E> sol);
+    /**
+     * Removes an element from a solution, updating its cost by the removal
+     * cost variation instead of evaluating the whole solution again.
+     *
+     * @param elem
+     *            the element to be removed.
+     * @param sol
+     *            the solution losing the element.
+     */
+    public abstract void applyRemoval(Integer elem, IntSolution sol);
 
     /**
      * Verify if the solution is feasible considering the problem constraints
@@ -86,7 +116,7 @@ public interface Evaluator<E> {
      *            the current solution to be checked
      * @return whether the solution is feasible or not
      */
-    public abstract Boolean isFeasible(Solution<E> sol);
+    public abstract Boolean isFeasible(IntSolution sol);
 
 
     /**
@@ -94,5 +124,5 @@ public interface Evaluator<E> {
      *
      * @return whether the candidate var indexes considering the current solution
      */
-    public abstract ArrayList<E> candidates(Solution<E> sol);
+    public abstract IntSet candidates(IntSolution sol);
 }
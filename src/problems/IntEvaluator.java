@@ -0,0 +1,80 @@
+package problems;
+
+/**
+ * Primitive specialization of the {@link Evaluator} for the search loops:
+ * elements are ints and cost variations are doubles, so evaluating a move
+ * allocates nothing. Every method refers to the solution bound through
+ * {@link #bind}, whose state the evaluator keeps up to date.
+ */
+public interface IntEvaluator extends Evaluator {
+
+    /**
+     * Evaluates the cost variation of inserting an element into the bound
+     * solution.
+     *
+     * @param elem
+     *            the element under consideration for insertion.
+     * @return the cost variation resulting from the element insertion.
+     */
+    public abstract double evaluateInsertion(int elem);
+
+    /**
+     * Evaluates the cost variation of removing an element from the bound
+     * solution.
+     *
+     * @param elem
+     *            the element under consideration for removal.
+     * @return the cost variation resulting from the element removal, or an
+     *         infinitely bad variation when the move is infeasible.
+     */
+    public abstract double evaluateRemoval(int elem);
+
+    /**
+     * Evaluates the cost variation of exchanging an element of the bound
+     * solution (out) by one outside of it (in).
+     *
+     * @param in
+     *            the element under consideration for insertion.
+     * @param out
+     *            the element under consideration for removal.
+     * @return the cost variation resulting from the elements exchange, or an
+     *         infinitely bad variation when the move is infeasible.
+     */
+    public abstract double evaluateExchange(int in, int out);
+
+    /**
+     * Evaluates the cost variation of inserting two elements (in1 and in2)
+     * into the bound solution while removing one of its elements (out).
+     *
+     * @return the cost variation resulting from the move, or an infinitely
+     *         bad variation when the move is invalid or infeasible.
+     */
+    public abstract double evaluateDoubleExchange(int in1, int in2, int out);
+
+    /**
+     * Inserts an element into the bound solution, updating its cost by the
+     * insertion cost variation.
+     *
+     * @param elem
+     *            the element to be inserted.
+     * @throws IllegalArgumentException
+     *             if the element is already in the solution.
+     */
+    public abstract void applyInsertion(int elem);
+
+    /**
+     * Removes an element from the bound solution, updating its cost by the
+     * removal cost variation.
+     *
+     * @param elem
+     *            the element to be removed.
+     * @throws IllegalArgumentException
+     *             if the element is not in the solution.
+     */
+    public abstract void applyRemoval(int elem);
+
+    /**
+     * @return whether the bound solution is feasible
+     */
+    public abstract boolean isFeasible();
+}
@@ -0,0 +1,105 @@
+package problems.scqbf;
+
+/**
+ * Cover matrix holding each set as a bitset, so that the coverage queries are
+ * answered by word-level AND/OR and popcount.
+ */
+final class BitsetCoverMatrix extends CoverMatrix {
+
+    //rows[i] = the variables covered by set i, packed 64 per word
+    private final long[][] rows;
+
+    BitsetCoverMatrix(int numVars, int[][] members) {
+        super(members.length, numVars);
+        rows = new long[numSets][words(numVars)];
+        for (int i = 0; i < numSets; i++) {
+            for (int j : members[i]) {
+                rows[i][j >>> 6] |= 1L << j;
+            }
+        }
+    }
+
+    @Override
+    public boolean covers(int set, int var) {
+        return (rows[set][var >>> 6] & (1L << var)) != 0;
+    }
+
+    @Override
+    public int cardinality(int set) {
+        int count = 0;
+        for (long word : rows[set]) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    @Override
+    public int members(int set, int[] buffer) {
+        long[] row = rows[set];
+        int count = 0;
+        for (int w = 0; w < row.length; w++) {
+            long word = row[w];
+            while (word != 0) {
+                buffer[count++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void orInto(int set, long[] bits) {
+        long[] row = rows[set];
+        for (int w = 0; w < row.length; w++) {
+            bits[w] |= row[w];
+        }
+    }
+
+    @Override
+    public boolean intersects(int set, long[] bits) {
+        long[] row = rows[set];
+        for (int w = 0; w < row.length; w++) {
+            if ((row[w] & bits[w]) != 0)
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public int countCovered(long[] bits, int set1, int set2) {
+        long[] row1 = rows[set1];
+        long[] row2 = set2 >= 0 ? rows[set2] : null;
+        int count = 0;
+        for (int w = 0; w < row1.length; w++) {
+            long covered = row2 != null ? row1[w] | row2[w] : row1[w];
+            count += Long.bitCount(covered & bits[w]);
+        }
+        return count;
+    }
+
+    @Override
+    public int countCovered(long[] bits, long[] moreBits, int set1, int set2) {
+        long[] row1 = rows[set1];
+        long[] row2 = set2 >= 0 ? rows[set2] : null;
+        int count = 0;
+        for (int w = 0; w < row1.length; w++) {
+            long covered = row2 != null ? row1[w] | row2[w] : row1[w];
+            count += Long.bitCount(covered & (bits[w] | moreBits[w]));
+        }
+        return count;
+    }
+
+    @Override
+    public boolean coversAll(long[] bits, int set1, int set2) {
+        long[] row1 = rows[set1];
+        long[] row2 = set2 >= 0 ? rows[set2] : null;
+        for (int w = 0; w < row1.length; w++) {
+            long left = bits[w] & ~row1[w];
+            if (row2 != null)
+                left &= ~row2[w];
+            if (left != 0)
+                return false;
+        }
+        return true;
+    }
+}
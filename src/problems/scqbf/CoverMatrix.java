@@ -0,0 +1,117 @@
+package problems.scqbf;
+
+/**
+ * The set-cover relation of a SC-QBF instance, telling which variables each
+ * set covers. Variable sets handed to the queries are bitsets packed 64
+ * variables per long word.
+ *
+ * The representation is chosen at load time by {@link #of}: packed bitsets
+ * for dense instances and CSR index lists for sparse ones.
+ */
+public abstract class CoverMatrix {
+
+    /**
+     * below this fraction of covered entries the CSR lists take less memory
+     * than the bitsets (one int per entry against one bit per variable)
+     */
+    private static final double SPARSE_DENSITY = 1.0 / 32;
+
+    protected final int numSets;
+
+    protected final int numVars;
+
+    protected CoverMatrix(int numSets, int numVars) {
+        this.numSets = numSets;
+        this.numVars = numVars;
+    }
+
+    /**
+     * Builds the representation that best fits the density of the relation
+     *
+     * @param numVars
+     *            the number of variables to be covered
+     * @param members
+     *            members[i] = indexes of the variables covered by set i,
+     *            without repetitions
+     */
+    public static CoverMatrix of(int numVars, int[][] members) {
+        long entries = 0;
+        for (int[] set : members) {
+            entries += set.length;
+        }
+
+        if (entries < SPARSE_DENSITY * members.length * numVars) {
+            return new SparseCoverMatrix(numVars, members);
+        }
+        return new BitsetCoverMatrix(numVars, members);
+    }
+
+    /**
+     * @return the number of long words of a bitset holding the given number
+     *         of bits
+     */
+    public static int words(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    public int getNumSets() {
+        return numSets;
+    }
+
+    public int getNumVars() {
+        return numVars;
+    }
+
+    /**
+     * @return whether variable var is covered by set
+     */
+    public abstract boolean covers(int set, int var);
+
+    /**
+     * @return how many variables the set covers
+     */
+    public abstract int cardinality(int set);
+
+    /**
+     * Copies the indexes of the variables covered by a set, in increasing
+     * order, into the given buffer
+     *
+     * @return the number of indexes copied
+     */
+    public abstract int members(int set, int[] buffer);
+
+    /**
+     * Adds the variables covered by a set to the given bitset
+     */
+    public abstract void orInto(int set, long[] bits);
+
+    /**
+     * @return whether the set covers any of the variables in the bitset
+     */
+    public abstract boolean intersects(int set, long[] bits);
+
+    /**
+     * Counts the variables of the bitset covered by set1 or set2
+     *
+     * @param set2
+     *            the second set, or a negative value for none
+     */
+    public abstract int countCovered(long[] bits, int set1, int set2);
+
+    /**
+     * Counts the variables of the union of two bitsets covered by set1 or
+     * set2, without building the union
+     *
+     * @param set2
+     *            the second set, or a negative value for none
+     */
+    public abstract int countCovered(long[] bits, long[] moreBits, int set1, int set2);
+
+    /**
+     * Checks whether every variable of the bitset is covered by set1 or set2
+     *
+     * @param set2
+     *            the second set, or a negative value for none
+     */
+    public abstract boolean coversAll(long[] bits, int set1, int set2);
+}
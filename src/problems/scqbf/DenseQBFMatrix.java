@@ -0,0 +1,61 @@
+package problems.scqbf;
+
+/**
+ * QBF matrix holding all the symmetrized coefficients in a single row-major
+ * double[], so that every row scan is contiguous.
+ */
+final class DenseQBFMatrix extends QBFMatrix {
+
+    //coefs[i * size + j] = A[i][j] + A[j][i], and A[i][i] on the diagonal
+    private final double[] coefs;
+
+    DenseQBFMatrix(int size) {
+        super(size);
+        coefs = new double[checkedLength((long) size * size)];
+    }
+
+    @Override
+    public void setUpper(int i, int j, double value) {
+        coefs[i * size + j] = value;
+        coefs[j * size + i] = value;
+    }
+
+    @Override
+    public double diagonal(int i) {
+        return coefs[i * size + i];
+    }
+
+    @Override
+    public double get(int i, int j) {
+        return coefs[i * size + j];
+    }
+
+    @Override
+    public void addRow(int i, double factor, double[] target) {
+        int row = i * size;
+        for (int j = 0; j < size; j++) {
+            target[j] += factor * coefs[row + j];
+        }
+        target[i] -= factor * coefs[row + i];
+    }
+
+    @Override
+    public double dotRow(int i, double[] x) {
+        int row = i * size;
+        double sum = 0;
+        for (int j = 0; j < size; j++) {
+            sum += x[j] * coefs[row + j];
+        }
+        return sum - x[i] * coefs[row + i];
+    }
+
+    @Override
+    protected double dotUpper(int i, double[] x) {
+        int row = i * size;
+        double sum = 0;
+        for (int j = i + 1; j < size; j++) {
+            sum += x[j] * coefs[row + j];
+        }
+        return sum;
+    }
+}
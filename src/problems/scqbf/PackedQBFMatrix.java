@@ -0,0 +1,68 @@
+package problems.scqbf;
+
+/**
+ * QBF matrix holding only the upper triangle, row by row, in a single
+ * double[]. It takes half the memory of {@link DenseQBFMatrix}; the part of
+ * a row left of the diagonal is read down a column.
+ */
+final class PackedQBFMatrix extends QBFMatrix {
+
+    //coefs[rowStart[i] + (j - i)] = A[i][j], for j >= i
+    private final double[] coefs;
+
+    private final int[] rowStart;
+
+    PackedQBFMatrix(int size) {
+        super(size);
+        coefs = new double[checkedLength(triangleOffset(size, size))];
+        rowStart = new int[size];
+        for (int i = 0; i < size; i++) {
+            rowStart[i] = (int) triangleOffset(i, size);
+        }
+    }
+
+    @Override
+    public void setUpper(int i, int j, double value) {
+        coefs[rowStart[i] + j - i] = value;
+    }
+
+    @Override
+    public double diagonal(int i) {
+        return coefs[rowStart[i]];
+    }
+
+    @Override
+    public double get(int i, int j) {
+        return i < j ? coefs[rowStart[i] + j - i] : coefs[rowStart[j] + i - j];
+    }
+
+    @Override
+    public void addRow(int i, double factor, double[] target) {
+        for (int j = 0; j < i; j++) {
+            target[j] += factor * coefs[rowStart[j] + i - j];
+        }
+        int row = rowStart[i] - i;
+        for (int j = i + 1; j < size; j++) {
+            target[j] += factor * coefs[row + j];
+        }
+    }
+
+    @Override
+    public double dotRow(int i, double[] x) {
+        double sum = 0;
+        for (int j = 0; j < i; j++) {
+            sum += x[j] * coefs[rowStart[j] + i - j];
+        }
+        return sum + dotUpper(i, x);
+    }
+
+    @Override
+    protected double dotUpper(int i, double[] x) {
+        int row = rowStart[i] - i;
+        double sum = 0;
+        for (int j = i + 1; j < size; j++) {
+            sum += x[j] * coefs[row + j];
+        }
+        return sum;
+    }
+}
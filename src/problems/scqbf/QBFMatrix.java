@@ -0,0 +1,119 @@
+package problems.scqbf;
+
+/**
+ * The coefficient matrix A of a QBF f(x) = x'.A.x. The instance files give
+ * only its upper triangle, so the implementations work with the symmetrized
+ * coefficients A[i][j] + A[j][i], which are simply the upper triangle values.
+ */
+public abstract class QBFMatrix {
+
+    /**
+     * How the coefficients are stored. DENSE keeps the full symmetrized
+     * matrix in a single double[] (contiguous rows, 8n^2 bytes), PACKED keeps
+     * only the upper triangle (4n^2 bytes) and PACKED_FLOAT keeps the upper
+     * triangle in single precision (2n^2 bytes). AUTO picks the fastest one
+     * that fits comfortably in the heap.
+     */
+    public enum Storage {
+        AUTO, DENSE, PACKED, PACKED_FLOAT
+    }
+
+    /**
+     * fraction of the maximum heap the automatic choice lets the matrix use
+     */
+    private static final double HEAP_FRACTION = 0.25;
+
+    protected final int size;
+
+    protected QBFMatrix(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Allocates an empty matrix of the given size, to be filled with
+     * {@link #setUpper}
+     */
+    public static QBFMatrix create(int size, Storage storage) {
+        if (storage == Storage.AUTO) {
+            double budget = Runtime.getRuntime().maxMemory() * HEAP_FRACTION;
+            double entries = (double) size * size;
+            if (8 * entries <= budget && entries <= Integer.MAX_VALUE) {
+                storage = Storage.DENSE;
+            } else if (4 * entries <= budget) {
+                storage = Storage.PACKED;
+            } else {
+                storage = Storage.PACKED_FLOAT;
+            }
+        }
+
+        switch (storage) {
+            case DENSE:
+                return new DenseQBFMatrix(size);
+            case PACKED:
+                return new PackedQBFMatrix(size);
+            default:
+                return new PackedFloatQBFMatrix(size);
+        }
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Sets the coefficient A[i][j] of the upper triangle (i <= j)
+     */
+    public abstract void setUpper(int i, int j, double value);
+
+    /**
+     * @return the coefficient A[i][i]
+     */
+    public abstract double diagonal(int i);
+
+    /**
+     * @return the symmetrized coefficient A[i][j] + A[j][i], for i != j
+     */
+    public abstract double get(int i, int j);
+
+    /**
+     * Adds factor * (A[i][j] + A[j][i]) to target[j], for every j != i
+     */
+    public abstract void addRow(int i, double factor, double[] target);
+
+    /**
+     * @return the sum of x[j] * (A[i][j] + A[j][i]), for every j != i
+     */
+    public abstract double dotRow(int i, double[] x);
+
+    /**
+     * @return the value of the quadratic form x'.A.x
+     */
+    public double evaluate(double[] x) {
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            if (x[i] != 0) {
+                sum += x[i] * (diagonal(i) + dotUpper(i, x));
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * @return the sum of x[j] * (A[i][j] + A[j][i]), for every j > i
+     */
+    protected abstract double dotUpper(int i, double[] x);
+
+    /**
+     * @return the offset of A[i][i] in a packed upper triangle, whose row i
+     *         holds A[i][i] .. A[i][n-1] contiguously
+     */
+    protected static long triangleOffset(int i, int size) {
+        return (long) i * size - (long) i * (i - 1) / 2;
+    }
+
+    protected static int checkedLength(long length) {
+        if (length > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException("QBF matrix too large for the chosen storage: " + length + " entries");
+        return (int) length;
+    }
+}
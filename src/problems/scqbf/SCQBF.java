@@ -1,27 +1,193 @@
 package problems.scqbf;
 
-import problems.Evaluator;
-import solutions.Solution;
+import problems.IntEvaluator;
+import solutions.IndexedMinHeap;
+import solutions.IntSet;
+import solutions.IntSolution;
 
-import java.io.*;
-import java.util.ArrayList;
+import java.io.IOException;
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
 
-public class SCQBF implements Evaluator<Integer> {
+/**
+ * Evaluator of a MAX-SC-QBF instance. The instance data is shared read-only;
+ * every other field is state of the solution being evaluated, so each thread
+ * must use its own evaluator.
+ */
+public class SCQBF implements IntEvaluator {
+    /**
+     * the default number of moves applied between two full evaluations of
+     * the bound solution
+     */
+    public static final int DEFAULT_DRIFT_CHECK_INTERVAL = 1000;
+
     public final Integer size;
 
-    public double[][] A;
+    public final QBFMatrix A;
+
+    //S.covers(i, j) = true means variable j is covered by set i
+    public final CoverMatrix S;
 
-    //S[i][j] = true means variable j is covered by set i
-    public boolean[][] S;
+    /**
+     * the constant term of the objective
+     */
+    public final double offset;
 
     public final double[] variables;
 
+    /**
+     * the neighbor lists of the QBF matrix, or null when it is dense
+     */
+    private final int[][] neighbors;
+
+    /**
+     * coverers[j] = the sets covering variable j
+     */
+    private final int[][] coverers;
+
+    /**
+     * Receives the moves listed by {@link #visitInsertions} and
+     * {@link #visitRemovals}.
+     */
+    public interface FlipVisitor {
+        /**
+         * @return whether the listing should go on
+         */
+        boolean visit(int elem, double delta);
+    }
+
+    /**
+     * the flip cost variations of the elements outside and inside the bound
+     * solution, or null when the gain queues are disabled
+     */
+    private IndexedMinHeap insertionQueue, removalQueue;
+
+    /**
+     * the elements taken from a gain queue while it is listed, and their
+     * priorities, put back once the listing ends
+     */
+    private int[] visitBuffer;
+    private double[] visitPriorities;
+
+    /**
+     * coverCount[j] = how many sets of the solution held by {@link #variables}
+     * cover variable j
+     */
+    private final int[] coverCount;
+
+    /**
+     * number of variables j with coverCount[j] == 0
+     */
+    private int uncoveredCount;
+
+    /**
+     * bitset of the variables j with coverCount[j] == 0
+     */
+    private final long[] uncoveredBits;
+
+    /**
+     * scratch buffer receiving the members of a set from {@link #S}
+     */
+    private final int[] memberBuffer;
+
+    /**
+     * uncoveredMembers[i] = number of variables covered by set i and by no
+     * set of the solution
+     */
+    private final int[] uncoveredMembers;
+
+    /**
+     * the sets outside the solution, and those of them covering some
+     * uncovered variable: the candidates to enter a feasible and an
+     * infeasible solution respectively
+     */
+    private final IntSet outsideSets, coveringSets;
+
+    /**
+     * the candidates of the bound solution in increasing index order, as
+     * returned by {@link #candidates}
+     */
+    private final IntSet candidateList;
+
+    /**
+     * coverXor[j] = xor of the indexes of the sets covering variable j, which
+     * is the only covering set whenever coverCount[j] == 1
+     */
+    private final int[] coverXor;
+
+    /**
+     * uniqueCover[i] = bitset of the variables covered by set i and by no
+     * other set of the solution (the variables that make set i critical), or
+     * null when set i is not in the solution, so that only the sets of the
+     * solution hold a row
+     */
+    private final long[][] uniqueCover;
+
+    /**
+     * spareRows[0 .. spareCount-1] = cleared rows released by the sets that
+     * left the solution, reused by the next sets entering it
+     */
+    private final long[][] spareRows;
+    private int spareCount;
+
+    /**
+     * uniqueCount[i] = number of bits set in uniqueCover[i]
+     */
+    private final int[] uniqueCount;
+
+    /**
+     * contributions[i] = sum_{j != i} x_j (A[i][j] + A[j][i]) for the bound
+     * solution, kept up to date in O(n) each time a variable is flipped
+     */
+    private final double[] contributions;
+
+    /**
+     * the weight of each uncovered variable in the cost, or 0 when
+     * infeasible solutions are rejected instead of penalized
+     */
+    private double penalty;
+
+    /**
+     * the solution tracked by the stateful evaluation mode, or null when the
+     * evaluator is stateless and every call rebuilds {@link #variables}
+     */
+    private IntSolution boundSol;
+
+    /**
+     * number of moves applied between two full evaluations of the bound
+     * solution (0 disables the drift check)
+     */
+    private int driftCheckInterval = DEFAULT_DRIFT_CHECK_INTERVAL;
+
+    /**
+     * moves applied since the last full evaluation of the bound solution
+     */
+    private int movesSinceDriftCheck;
+
     public SCQBF(String filename) throws IOException {
-        size = readInput(filename);
+        this(new SCQBFInstance(filename));
+    }
+
+    public SCQBF(SCQBFInstance instance) {
+        size = instance.size;
+        A = instance.A;
+        S = instance.S;
+        offset = instance.offset;
+        neighbors = instance.neighbors;
+        coverers = instance.coverers;
         variables = new double[size];
+        contributions = new double[size];
+        int numVars = S.getNumVars();
+        coverCount = new int[numVars];
+        uncoveredBits = new long[CoverMatrix.words(numVars)];
+        memberBuffer = new int[numVars];
+        coverXor = new int[numVars];
+        uniqueCover = new long[size][];
+        spareRows = new long[size][];
+        uniqueCount = new int[size];
+        uncoveredMembers = new int[size];
+        outsideSets = new IntSet(size);
+        coveringSets = new IntSet(size);
+        candidateList = new IntSet(size);
     }
 
     @Override
@@ -29,106 +195,509 @@ public class SCQBF implements Evaluator<Integer> {
         return size;
     }
 
+    /**
+     * Evaluates a solution, coverage penalty included, consistently with
+     * {@link #bind} and the incremental moves.
+     */
     @Override
-    public Double evaluate(Solution<Integer> sol) {
-        setVariables(sol);
-        sol.cost = evaluateQBF();
+    public Double evaluate(IntSolution sol) {
+        syncVariables(sol);
+        sol.cost = evaluateQBF() + evaluatePenalty();
 
         return sol.cost;
     }
 
-    public void setVariables(Solution<Integer> sol) {
-        resetVariables();
-        if (!sol.isEmpty()) {
-            for (Integer elem : sol) {
-                variables[elem] = 1.0;
+    /**
+     * Enables the stateful evaluation mode for the given solution: its
+     * variables and contribution vector are built once (O(n^2)) and the cost
+     * variations of that same solution are then answered in O(1). Every later
+     * change to the solution must be made through {@link #applyInsertion} and
+     * {@link #applyRemoval}, or reported through {@link #insertVariable} and
+     * {@link #removeVariable}.
+     *
+     * @param sol
+     *            the solution to be tracked
+     */
+    @Override
+    public void bind(IntSolution sol) {
+        setVariables(sol);
+        Arrays.fill(contributions, 0.0);
+        for (int j = 0; j < size; j++) {
+            if (variables[j] == 1) {
+                addContributions(j, 1.0);
             }
         }
+        sol.cost = evaluateQBF() + evaluatePenalty();
+        boundSol = sol;
+        movesSinceDriftCheck = 0;
+        if (insertionQueue != null) {
+            fillGainQueues();
+        }
     }
 
-    public void resetVariables() {
-        Arrays.fill(variables, 0.0);
+    @Override
+    public void applyInsertion(Integer elem, IntSolution sol) {
+        if (sol != boundSol)
+            bind(sol);
+
+        applyInsertion(elem.intValue());
+    }
+
+    @Override
+    public void applyRemoval(Integer elem, IntSolution sol) {
+        if (sol != boundSol)
+            bind(sol);
+
+        applyRemoval(elem.intValue());
+    }
+
+    @Override
+    public void applyInsertion(int elem) {
+        requireBound();
+        if (variables[elem] == 1)
+            throw new IllegalArgumentException("Element already in the solution: " + elem);
+
+        boundSol.cost += evaluateFlipQBF(elem) + evaluateFlipPenalty(elem);
+        boundSol.add(elem);
+        insertVariable(elem);
+        checkDrift(boundSol);
+    }
+
+    @Override
+    public void applyRemoval(int elem) {
+        requireBound();
+        if (variables[elem] == 0)
+            throw new IllegalArgumentException("Element not in the solution: " + elem);
+
+        boundSol.cost += evaluateFlipQBF(elem) + evaluateFlipPenalty(elem);
+        boundSol.remove(elem);
+        removeVariable(elem);
+        checkDrift(boundSol);
+    }
+
+    @Override
+    public double evaluateInsertion(int elem) {
+        requireBound();
+        return evaluateInsertionQBF(elem);
+    }
+
+    @Override
+    public double evaluateRemoval(int elem) {
+        requireBound();
+        return evaluateRemovalQBF(elem);
+    }
+
+    @Override
+    public double evaluateExchange(int in, int out) {
+        requireBound();
+        return evaluateExchangeQBF(in, out);
+    }
+
+    @Override
+    public double evaluateDoubleExchange(int in1, int in2, int out) {
+        requireBound();
+        return evaluateDoubleExchangeQBF(in1, in2, out);
+    }
+
+    @Override
+    public boolean isFeasible() {
+        requireBound();
+        return uncoveredCount == 0;
+    }
+
+    private void requireBound() {
+        if (boundSol == null)
+            throw new IllegalStateException("No solution bound to the evaluator");
+    }
+
+    /**
+     * Sets how many moves are applied between two full O(n^2) evaluations of
+     * the bound solution, which discard the rounding error accumulated by
+     * the incremental updates. Zero disables the check.
+     *
+     * @throws IllegalArgumentException
+     *             if the interval is negative.
+     */
+    public void setDriftCheckInterval(int driftCheckInterval) {
+        if (driftCheckInterval < 0)
+            throw new IllegalArgumentException("Drift check interval must not be negative: " + driftCheckInterval);
+
+        this.driftCheckInterval = driftCheckInterval;
+    }
+
+    /**
+     * Enables the strategic oscillation mode: infeasible solutions are no
+     * longer rejected, and instead each uncovered variable lowers the
+     * objective by the given weight, so the search may cross infeasible
+     * regions. A weight of 0 restores the rejection of infeasible moves. The
+     * cost of the bound solution is updated to the new weight.
+     */
+    public void setPenalty(double penalty) {
+        if (boundSol != null)
+            boundSol.cost -= evaluatePenalty();
+        this.penalty = penalty;
+        if (boundSol != null)
+            boundSol.cost += evaluatePenalty();
+    }
+
+    /**
+     * @return the coverage penalty of the solution held by
+     *         {@link #variables}, zero outside of the oscillation mode
+     */
+    public double evaluatePenalty() {
+        return -penalty * uncoveredCount;
+    }
+
+    /**
+     * @return the variation of the coverage penalty when flipping set i,
+     *         zero outside of the oscillation mode
+     */
+    public double evaluateFlipPenalty(int i) {
+        return flipPenalty(i);
+    }
+
+    private double flipPenalty(int i) {
+        if (penalty == 0)
+            return 0.0;
+        if (variables[i] == 1)
+            return -penalty * uniqueCount[i];
+
+        return uncoveredCount == 0 ? 0.0 : penalty * S.countCovered(uncoveredBits, i, -1);
+    }
+
+    /**
+     * @return the variation of the coverage penalty when inserting the sets
+     *         in1 and in2 (in2 < 0 when only one set enters) and removing the
+     *         set out: the variables left uncovered are those uncovered now
+     *         or covered only by out, except the ones the entering sets cover
+     */
+    private double exchangePenalty(int in1, int in2, int out) {
+        if (penalty == 0)
+            return 0.0;
+        return -penalty * (uniqueCount[out] - S.countCovered(uncoveredBits, uniqueCover[out], in1, in2));
+    }
+
+    private void checkDrift(IntSolution sol) {
+        if (driftCheckInterval > 0 && ++movesSinceDriftCheck >= driftCheckInterval) {
+            bind(sol);
+        }
+    }
+
+    /**
+     * Updates the bound state after element i was inserted into the solution
+     */
+    public void insertVariable(int i) {
+        variables[i] = 1.0;
+        outsideSets.remove(i);
+        coveringSets.remove(i);
+        addContributions(i, 1.0);
+        addCoverage(i);
+        updateGainQueues(i);
+    }
+
+    /**
+     * Updates the bound state after element i was removed from the solution
+     */
+    public void removeVariable(int i) {
+        variables[i] = 0.0;
+        outsideSets.add(i);
+        addContributions(i, -1.0);
+        removeCoverage(i);
+        updateGainQueues(i);
+    }
+
+    private void addCoverage(int i) {
+        uniqueCover[i] = takeRow();
+        int k = S.members(i, memberBuffer);
+        for (int m = 0; m < k; m++) {
+            int j = memberBuffer[m];
+            int count = coverCount[j]++;
+            if (count == 0) {
+                uncoveredCount--;
+                uncoveredBits[j >>> 6] &= ~(1L << j);
+                setUnique(i, j);
+                for (int s : coverers[j]) {
+                    if (--uncoveredMembers[s] == 0) {
+                        coveringSets.remove(s);
+                    }
+                }
+            } else if (count == 1) {
+                clearUnique(coverXor[j], j);
+            }
+            coverXor[j] ^= i;
+        }
+    }
+
+    private void removeCoverage(int i) {
+        int k = S.members(i, memberBuffer);
+        for (int m = 0; m < k; m++) {
+            int j = memberBuffer[m];
+            coverXor[j] ^= i;
+            int count = --coverCount[j];
+            if (count == 0) {
+                uncoveredCount++;
+                uncoveredBits[j >>> 6] |= 1L << j;
+                clearUnique(i, j);
+                for (int s : coverers[j]) {
+                    if (uncoveredMembers[s]++ == 0 && variables[s] == 0) {
+                        coveringSets.add(s);
+                    }
+                }
+            } else if (count == 1) {
+                setUnique(coverXor[j], j);
+            }
+        }
+        //every variable covered only by set i is uncovered now, so its row is clear
+        releaseRow(i);
+    }
+
+    private long[] takeRow() {
+        return spareCount > 0 ? spareRows[--spareCount] : new long[CoverMatrix.words(S.getNumVars())];
+    }
+
+    private void releaseRow(int i) {
+        spareRows[spareCount++] = uniqueCover[i];
+        uniqueCover[i] = null;
+    }
+
+    private void setUnique(int i, int j) {
+        uniqueCover[i][j >>> 6] |= 1L << j;
+        uniqueCount[i]++;
+    }
+
+    private void clearUnique(int i, int j) {
+        uniqueCover[i][j >>> 6] &= ~(1L << j);
+        uniqueCount[i]--;
     }
 
-    public Double evaluateQBF() {
-        double aux = 0, sum = 0;
+    private void addContributions(int i, double factor) {
+        if (neighbors == null) {
+            A.addRow(i, factor, contributions);
+            return;
+        }
+        for (int j : neighbors[i]) {
+            contributions[j] += factor * A.get(i, j);
+        }
+    }
 
+    /**
+     * Keeps the flip cost variations of the bound solution in two indexed
+     * priority queues, one for the elements outside of the solution and one
+     * for those inside, so that {@link #visitInsertions} and
+     * {@link #visitRemovals} list the moves in O(log n) each. A move updates
+     * only the queue entries of the neighbors of the flipped element, so the
+     * queues are enabled only when the QBF matrix is sparse.
+     *
+     * @return whether the queues are enabled
+     */
+    public boolean enableGainQueues() {
+        if (neighbors == null)
+            return false;
+
+        if (insertionQueue == null) {
+            insertionQueue = new IndexedMinHeap(size);
+            removalQueue = new IndexedMinHeap(size);
+            visitBuffer = new int[size];
+            visitPriorities = new double[size];
+            if (boundSol != null) {
+                fillGainQueues();
+            }
+        }
+        return true;
+    }
+
+    private void fillGainQueues() {
+        insertionQueue.clear();
+        removalQueue.clear();
         for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                aux += variables[j] * A[i][j];
+            gainQueue(i).add(i, evaluateFlipQBF(i));
+        }
+    }
+
+    //the gain queue holding element i in the bound solution
+    private IndexedMinHeap gainQueue(int i) {
+        return variables[i] == 1 ? removalQueue : insertionQueue;
+    }
+
+    /**
+     * Moves the flipped element i to the other gain queue and updates the
+     * flip cost variations of its neighbors
+     */
+    private void updateGainQueues(int i) {
+        if (insertionQueue == null || boundSol == null)
+            return;
+
+        (variables[i] == 1 ? insertionQueue : removalQueue).remove(i);
+        gainQueue(i).add(i, evaluateFlipQBF(i));
+        for (int j : neighbors[i]) {
+            gainQueue(j).update(j, evaluateFlipQBF(j));
+        }
+    }
+
+    /**
+     * Lists the insertions into the bound solution by increasing cost
+     * variation, until the visitor returns false. The gain queues must be
+     * enabled, and the visitor must not change the solution.
+     */
+    public void visitInsertions(FlipVisitor visitor) {
+        visitGainQueue(insertionQueue, visitor);
+    }
+
+    /**
+     * Lists the removals from the bound solution by increasing cost variation
+     * of the flip, until the visitor returns false. The cost variation given
+     * to the visitor is infinitely bad for infeasible removals. The gain
+     * queues must be enabled, and the visitor must not change the solution.
+     */
+    public void visitRemovals(FlipVisitor visitor) {
+        visitGainQueue(removalQueue, visitor);
+    }
+
+    private void visitGainQueue(IndexedMinHeap queue, FlipVisitor visitor) {
+        requireBound();
+        if (queue == null)
+            throw new IllegalStateException("Gain queues not enabled");
+
+        int visited = 0;
+        try {
+            while (!queue.isEmpty()) {
+                int elem = queue.peek();
+                visitPriorities[visited] = queue.priority(elem);
+                visitBuffer[visited++] = queue.poll();
+                double delta = variables[elem] == 1 ? evaluateRemovalQBF(elem) : evaluateInsertionQBF(elem);
+                if (!visitor.visit(elem, delta))
+                    break;
+            }
+        } finally {
+            while (visited > 0) {
+                visited--;
+                queue.add(visitBuffer[visited], visitPriorities[visited]);
             }
-            sum += aux * variables[i];
-            aux = 0;
         }
-        return sum;
+    }
+
+    /**
+     * Loads the variables of a solution, unless it is the bound one, whose
+     * variables are already up to date. Evaluating any other solution
+     * overwrites the variables, so the stateful mode is dropped.
+     */
+    private void syncVariables(IntSolution sol) {
+        if (sol != boundSol) {
+            boundSol = null;
+            setVariables(sol);
+        }
+    }
+
+    public void setVariables(IntSolution sol) {
+        resetVariables();
+        for (int k = 0; k < sol.size(); k++) {
+            int elem = sol.get(k);
+            variables[elem] = 1.0;
+            outsideSets.remove(elem);
+            coveringSets.remove(elem);
+            addCoverage(elem);
+        }
+    }
+
+    public void resetVariables() {
+        for (int i = 0; i < size; i++) {
+            if (uniqueCover[i] != null) {
+                Arrays.fill(uniqueCover[i], 0L);
+                uniqueCount[i] = 0;
+                releaseRow(i);
+            }
+        }
+        Arrays.fill(variables, 0.0);
+        Arrays.fill(coverCount, 0);
+        Arrays.fill(coverXor, 0);
+        outsideSets.clear();
+        coveringSets.clear();
+        for (int i = 0; i < size; i++) {
+            uncoveredMembers[i] = S.cardinality(i);
+            outsideSets.add(i);
+            if (uncoveredMembers[i] > 0) {
+                coveringSets.add(i);
+            }
+        }
+        uncoveredCount = coverCount.length;
+        Arrays.fill(uncoveredBits, -1L);
+        clearTail(uncoveredBits, uncoveredCount);
+    }
+
+    //clears the bits past the last variable in the last word of a bitset
+    private static void clearTail(long[] bits, int numBits) {
+        if ((numBits & 63) != 0)
+            bits[bits.length - 1] &= (1L << numBits) - 1;
+    }
+
+    public double evaluateQBF() {
+        return A.evaluate(variables) + offset;
     }
 
     @Override
-    public Double evaluateInsertionCost(Integer elem, Solution<Integer> sol) {
-        setVariables(sol);
+    public Double evaluateInsertionCost(Integer elem, IntSolution sol) {
+        syncVariables(sol);
         return evaluateInsertionQBF(elem);
     }
 
-    public Double evaluateInsertionQBF(int i) {
+    public double evaluateInsertionQBF(int i) {
         if (variables[i] == 1)
             return 0.0;
 
-        return evaluateContributionQBF(i);
+        return evaluateContributionQBF(i) + flipPenalty(i);
     }
 
     @Override
-    public Double evaluateRemovalCost(Integer elem, Solution<Integer> sol) {
-        setVariables(sol);
-        return evaluateRemovalQBF(elem, sol);
+    public Double evaluateRemovalCost(Integer elem, IntSolution sol) {
+        syncVariables(sol);
+        return evaluateRemovalQBF(elem);
     }
 
-    public Double evaluateRemovalQBF(int i, Solution<Integer> sol) {
+    public double evaluateRemovalQBF(int i) {
         if (variables[i] == 0)
             return 0.0;
 
-        if (!isFeasible(sol)) {
+        if (penalty == 0 && !isRemovalFeasible(i)) {
             return Double.NEGATIVE_INFINITY;
         }
 
-        return -evaluateContributionQBF(i);
+        return -evaluateContributionQBF(i) + flipPenalty(i);
     }
 
     @Override
-    public Double evaluateExchangeCost(Integer elemIn, Integer elemOut, Solution<Integer> sol) {
-        setVariables(sol);
-        return evaluateExchangeQBF(elemIn, elemOut, sol);
+    public Double evaluateExchangeCost(Integer elemIn, Integer elemOut, IntSolution sol) {
+        syncVariables(sol);
+        return evaluateExchangeQBF(elemIn, elemOut);
     }
 
-    public Double evaluateExchangeQBF(int in, int out, Solution<Integer> sol) {
+    public double evaluateExchangeQBF(int in, int out) {
         if (in == out)
             return 0.0;
         if (variables[in] == 1)
-            return evaluateRemovalQBF(out, sol);
+            return evaluateRemovalQBF(out);
         if (variables[out] == 0)
             return evaluateInsertionQBF(in);
 
-        Solution<Integer> tempSolution = new Solution<>(sol);
-        tempSolution.remove(Integer.valueOf(out));
-        tempSolution.add(in);
-        if (!isFeasible(tempSolution)) {
+        if (penalty == 0 && !isExchangeFeasible(in, -1, out)) {
             return Double.NEGATIVE_INFINITY;
         }
 
         double sum = 0.0;
         sum += evaluateContributionQBF(in);
         sum -= evaluateContributionQBF(out);
-        sum -= (A[in][out] + A[out][in]);
+        sum -= A.get(in, out);
+        sum += exchangePenalty(in, -1, out);
 
         return sum;
     }
 
     @Override
-    public Double evaluateDoubleExchangeCost(Integer in1, Integer in2, Integer out, Solution<Integer> sol) {
-        setVariables(sol);
-        return evaluateDoubleExchangeQBF(in1, in2, out, sol);
+    public Double evaluateDoubleExchangeCost(Integer in1, Integer in2, Integer out, IntSolution sol) {
+        syncVariables(sol);
+        return evaluateDoubleExchangeQBF(in1, in2, out);
     }
 
-    public Double evaluateDoubleExchangeQBF(int in1, int in2, int out, Solution<Integer> sol) {
+    public double evaluateDoubleExchangeQBF(int in1, int in2, int out) {
         if (in1 == out || in2 == out || in1 == in2)
             return Double.NEGATIVE_INFINITY;
         if (variables[in1] == 1 || variables[in2] == 1)
@@ -136,138 +705,121 @@ public class SCQBF implements Evaluator<Integer> {
         if (variables[out] == 0)
             return Double.NEGATIVE_INFINITY;
 
-        Solution<Integer> tempSolution = new Solution<>(sol);
-        tempSolution.remove(Integer.valueOf(out));
-        tempSolution.add(in1);
-        tempSolution.add(in2);
-
-        if (!isFeasible(tempSolution)) {
+        if (penalty == 0 && !isExchangeFeasible(in1, in2, out)) {
             return Double.NEGATIVE_INFINITY;
         }
 
-        double delta = 0.0;
+        double delta = exchangePenalty(in1, in2, out);
 
         delta += evaluateContributionQBF(in1);
         delta += evaluateContributionQBF(in2);
         delta -= evaluateContributionQBF(out);
 
-        delta -= (A[in1][out] + A[out][in1]);
-        delta += (A[in1][in2] + A[in2][in1]);
-        delta -= (A[in2][out] + A[out][in2]);
+        delta -= A.get(in1, out);
+        delta += A.get(in1, in2);
+        delta -= A.get(in2, out);
 
         return delta;
     }
 
-    private Double evaluateContributionQBF(int i) {
-        double sum = 0.0;
-
-        for (int j = 0; j < size; j++) {
-            if (i != j)
-                sum += variables[j] * (A[i][j] + A[j][i]);
-        }
-        sum += A[i][i];
+    /**
+     * Evaluates the cost variation of flipping variable i, without checking
+     * the feasibility of the resulting solution
+     */
+    public double evaluateFlipQBF(int i) {
+        if (variables[i] == 1)
+            return -evaluateContributionQBF(i);
 
-        return sum;
+        return evaluateContributionQBF(i);
     }
 
-    public Boolean isFeasible(Solution<Integer> sol) {
-        Set<Integer> coveredVars = getCoveredVars(sol);
-        return coveredVars.size() == size;
+    private double evaluateContributionQBF(int i) {
+        if (boundSol != null)
+            return contributions[i] + A.diagonal(i);
+
+        return A.dotRow(i, variables) + A.diagonal(i);
     }
 
-    private Set<Integer> getCoveredVars(Solution<Integer> sol) {
-        Set<Integer> coveredVars = new HashSet<>();
+    public Boolean isFeasible(IntSolution sol) {
+        if (sol == boundSol)
+            return uncoveredCount == 0;
 
-        for (Integer subsetIdx: sol) {
-            for (int j = 0; j < size; j++) {
-                if (S[subsetIdx][j]) {
-                    coveredVars.add(j);
-                }
-            }
-        }
-        return coveredVars;
+        return countBits(getCoveredVars(sol)) == S.getNumVars();
     }
 
-    public ArrayList<Integer> candidates(Solution<Integer> sol) {
-        ArrayList<Integer> cands = new ArrayList<>();
-
-        if (isFeasible(sol)) {
-            // If already feasible, any subset not in solution can be candidate
-            for (int i = 0; i < size; i++) {
-                if (!sol.contains(i)) {
-                    cands.add(i);
-                }
-            }
-            return cands;
-        } else {
-            // only consider subsets that cover uncovered variables
-            var uncovered = getUncoveredVars(sol);
-            for (int i = 0; i < size; i++) {
-                if (!sol.contains(i) && subSetHasUncoveredVar(i, uncovered)) {
-                    cands.add(i);
-                }
-            }
-        }
+    /**
+     * Checks whether the solution held by {@link #variables} stays feasible
+     * after removing set i, i.e. whether set i covers no variable uniquely
+     */
+    private boolean isRemovalFeasible(int i) {
+        return uncoveredCount == 0 && uniqueCount[i] == 0;
+    }
 
-        return cands;
+    /**
+     * Checks whether the solution held by {@link #variables} is feasible
+     * after inserting the sets in1 and in2 (in2 < 0 when only one set enters)
+     * and removing the set out: the entering sets must cover every uncovered
+     * variable and every variable covered uniquely by out, which are
+     * word-wide tests over the coverage bitsets
+     */
+    private boolean isExchangeFeasible(int in1, int in2, int out) {
+        if (uncoveredCount > 0 && S.countCovered(uncoveredBits, in1, in2) < uncoveredCount)
+            return false;
+        if (uniqueCount[out] == 0)
+            return true;
+
+        return S.coversAll(uniqueCover[out], in1, in2);
     }
 
-    private boolean subSetHasUncoveredVar(Integer subset, Set<Integer> uncovered) {
-        for (int j = 0; j < size; j++) {
-            if (S[subset][j] && uncovered.contains(j)) {
-                return true;
-            }
+    private long[] getCoveredVars(IntSolution sol) {
+        long[] coveredVars = new long[CoverMatrix.words(S.getNumVars())];
+
+        for (int k = 0; k < sol.size(); k++) {
+            S.orInto(sol.get(k), coveredVars);
         }
-        return false;
+        return coveredVars;
     }
 
-    public Set<Integer> getUncoveredVars(Solution<Integer> sol) {
-        Set<Integer> vars = new HashSet<>();
-        for (int i = 0; i < size; i++) {
-            vars.add(i);
+    private static int countBits(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
         }
-
-        Set<Integer> coveredVars = getCoveredVars(sol);
-
-        vars.removeAll(coveredVars);
-        return vars;
+        return count;
     }
 
-    protected Integer readInput(String filename) throws IOException {
-        Reader fileInst = new BufferedReader(new FileReader(filename));
-        StreamTokenizer stok = new StreamTokenizer(fileInst);
-
-        stok.nextToken();
-        int _size = (int) stok.nval;
-
-        int[] setSizes = new int[_size];
-        for (int i = 0; i < _size; i++) {
-            stok.nextToken();
-            setSizes[i] = (int) stok.nval;
+    /**
+     * @return the sets that may enter the solution: every set outside it
+     *         when it is feasible, and otherwise only those covering some
+     *         uncovered variable, in increasing index order. For the bound
+     *         solution they are copied from the sets kept up to date by the
+     *         coverage counters of every applied move, in O(n/64 + |CL|),
+     *         into a set reused by the next call, which must not be modified.
+     */
+    public IntSet candidates(IntSolution sol) {
+        if (sol == boundSol) {
+            //the live sets are in removal order, which would make the scans depend on the move history
+            candidateList.copySortedFrom(uncoveredCount == 0 ? outsideSets : coveringSets);
+            return candidateList;
         }
 
-        S = new boolean[_size][_size];
-
-        for (int i = 0; i < _size; i++) {
-            for (int j = 0; j < setSizes[i]; j++) {
-                stok.nextToken();
-                int varIdx = (int) stok.nval;
-                S[i][varIdx - 1] = true;
+        IntSet cands = new IntSet(size);
+        var uncovered = getUncoveredBits(sol);
+        boolean feasible = countBits(uncovered) == 0;
+        for (int i = 0; i < size; i++) {
+            if (!sol.contains(i) && (feasible || S.intersects(i, uncovered))) {
+                cands.add(i);
             }
         }
+        return cands;
+    }
 
-        A = new double[_size][_size];
-        for (int i = 0; i < _size; i++) {
-            for (int j = 0; j < _size; j++) {
-                if (j >= i) {
-                    stok.nextToken();
-                    A[i][j] = stok.nval;
-                } else {
-                    A[i][j] = 0.0;
-                }
-            }
+    private long[] getUncoveredBits(IntSolution sol) {
+        long[] bits = getCoveredVars(sol);
+        for (int w = 0; w < bits.length; w++) {
+            bits[w] = ~bits[w];
         }
-
-        return _size;
+        clearTail(bits, S.getNumVars());
+        return bits;
     }
 }
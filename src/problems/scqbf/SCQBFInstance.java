@@ -0,0 +1,188 @@
+package problems.scqbf;
+
+import java.io.*;
+import java.util.Arrays;
+
+/**
+ * The data of a MAX-SC-QBF instance: the QBF matrix A and the set-cover
+ * matrix S. It is never modified after loading, so a single instance can be
+ * shared read-only by several {@link SCQBF} evaluators, each one keeping the
+ * state of its own solution, running in different threads.
+ */
+public class SCQBFInstance {
+
+    /**
+     * the largest fraction of non-zero coefficients for which the QBF matrix
+     * is considered sparse and its neighbor lists are kept
+     */
+    private static final double SPARSE_DENSITY = 1.0 / 16;
+
+    public final int size;
+
+    public final QBFMatrix A;
+
+    //S.covers(i, j) = true means variable j is covered by set i
+    public final CoverMatrix S;
+
+    /**
+     * coverers[j] = the sets covering variable j, the transpose of S
+     */
+    public final int[][] coverers;
+
+    /**
+     * neighbors[i] = the variables j != i with A[i][j] + A[j][i] != 0, kept
+     * only when the matrix is sparse (null otherwise)
+     */
+    public final int[][] neighbors;
+
+    /**
+     * maxCoefficient[i] = the largest |A[i][j] + A[j][i]| over j != i, which
+     * bounds how much the interaction with any other variable can change the
+     * cost variation of flipping i
+     */
+    public final double[] maxCoefficient;
+
+    /**
+     * the constant term of the objective, left by the variables fixed by a
+     * {@link SCQBFReduction} (0 for an instance read from a file)
+     */
+    public final double offset;
+
+    /**
+     * the storage chosen for the QBF matrix, which the instances derived from
+     * this one, such as its reduction, use too
+     */
+    public final QBFMatrix.Storage storage;
+
+    public SCQBFInstance(String filename) throws IOException {
+        this(filename, QBFMatrix.Storage.AUTO);
+    }
+
+    /**
+     * Reads an instance, storing its QBF matrix as given.
+     */
+    public SCQBFInstance(String filename, QBFMatrix.Storage storage) throws IOException {
+        this.storage = storage;
+        try (Reader fileInst = new BufferedReader(new FileReader(filename))) {
+            StreamTokenizer stok = new StreamTokenizer(fileInst);
+
+            stok.nextToken();
+            size = (int) stok.nval;
+
+            int[] setSizes = new int[size];
+            for (int i = 0; i < size; i++) {
+                stok.nextToken();
+                setSizes[i] = (int) stok.nval;
+            }
+
+            int[][] members = new int[size][];
+            for (int i = 0; i < size; i++) {
+                members[i] = new int[setSizes[i]];
+                for (int j = 0; j < setSizes[i]; j++) {
+                    stok.nextToken();
+                    int varIdx = (int) stok.nval;
+                    members[i][j] = varIdx - 1;
+                }
+                members[i] = Arrays.stream(members[i]).sorted().distinct().toArray();
+            }
+            S = CoverMatrix.of(size, members);
+
+            A = QBFMatrix.create(size, storage);
+            for (int i = 0; i < size; i++) {
+                for (int j = i; j < size; j++) {
+                    stok.nextToken();
+                    A.setUpper(i, j, stok.nval);
+                }
+            }
+        }
+        offset = 0;
+        coverers = makeCoverers();
+        maxCoefficient = new double[size];
+        neighbors = analyzeMatrix();
+    }
+
+    /**
+     * Builds an instance from its matrices, such as a reduced instance.
+     *
+     * @param offset
+     *            the constant term added to the objective.
+     * @param storage
+     *            the storage chosen for the QBF matrix.
+     */
+    public SCQBFInstance(QBFMatrix A, CoverMatrix S, double offset, QBFMatrix.Storage storage) {
+        this.size = A.getSize();
+        this.A = A;
+        this.S = S;
+        this.offset = offset;
+        this.storage = storage;
+        coverers = makeCoverers();
+        maxCoefficient = new double[size];
+        neighbors = analyzeMatrix();
+    }
+
+    private int[][] makeCoverers() {
+        int numVars = S.getNumVars();
+        int[] buffer = new int[numVars];
+        int[] count = new int[numVars];
+        for (int i = 0; i < size; i++) {
+            int k = S.members(i, buffer);
+            for (int m = 0; m < k; m++) {
+                count[buffer[m]]++;
+            }
+        }
+        int[][] lists = new int[numVars][];
+        for (int j = 0; j < numVars; j++) {
+            lists[j] = new int[count[j]];
+            count[j] = 0;
+        }
+        for (int i = 0; i < size; i++) {
+            int k = S.members(i, buffer);
+            for (int m = 0; m < k; m++) {
+                int j = buffer[m];
+                lists[j][count[j]++] = i;
+            }
+        }
+        return lists;
+    }
+
+    /**
+     * Fills {@link #maxCoefficient} and builds the neighbor lists when the
+     * matrix is sparse.
+     *
+     * @return the neighbor lists, or null when the matrix is dense
+     */
+    private int[][] analyzeMatrix() {
+        int[] degree = new int[size];
+        long nonZeros = 0;
+        for (int i = 0; i < size; i++) {
+            for (int j = i + 1; j < size; j++) {
+                double abs = Math.abs(A.get(i, j));
+                if (abs != 0) {
+                    maxCoefficient[i] = Math.max(maxCoefficient[i], abs);
+                    maxCoefficient[j] = Math.max(maxCoefficient[j], abs);
+                    degree[i]++;
+                    degree[j]++;
+                    nonZeros += 2;
+                }
+            }
+        }
+        return nonZeros <= SPARSE_DENSITY * size * size ? makeNeighbors(degree) : null;
+    }
+
+    private int[][] makeNeighbors(int[] degree) {
+        int[][] lists = new int[size][];
+        for (int i = 0; i < size; i++) {
+            lists[i] = new int[degree[i]];
+            degree[i] = 0;
+        }
+        for (int i = 0; i < size; i++) {
+            for (int j = i + 1; j < size; j++) {
+                if (A.get(i, j) != 0) {
+                    lists[i][degree[i]++] = j;
+                    lists[j][degree[j]++] = i;
+                }
+            }
+        }
+        return lists;
+    }
+}
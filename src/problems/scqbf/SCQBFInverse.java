@@ -1,7 +1,5 @@
 package problems.scqbf;
 
-import solutions.Solution;
-
 import java.io.IOException;
 
 public class SCQBFInverse extends SCQBF {
@@ -9,28 +7,47 @@ public class SCQBFInverse extends SCQBF {
         super(filename);
     }
 
+    public SCQBFInverse(SCQBFInstance instance) {
+        super(instance);
+    }
+
     @Override
-    public Double evaluateQBF() {
+    public double evaluateQBF() {
         return -super.evaluateQBF();
     }
 
     @Override
-    public Double evaluateInsertionQBF(int i) {
+    public double evaluateInsertionQBF(int i) {
         return -super.evaluateInsertionQBF(i);
     }
 
     @Override
-    public Double evaluateRemovalQBF(int i, Solution<Integer> sol) {
-        return -super.evaluateRemovalQBF(i, sol);
+    public double evaluateRemovalQBF(int i) {
+        return -super.evaluateRemovalQBF(i);
+    }
+
+    @Override
+    public double evaluateExchangeQBF(int in, int out) {
+        return -super.evaluateExchangeQBF(in, out);
+    }
+
+    @Override
+    public double evaluateFlipQBF(int i) {
+        return -super.evaluateFlipQBF(i);
+    }
+
+    @Override
+    public double evaluatePenalty() {
+        return -super.evaluatePenalty();
     }
 
     @Override
-    public Double evaluateExchangeQBF(int in, int out, Solution<Integer> sol) {
-        return -super.evaluateExchangeQBF(in, out, sol);
+    public double evaluateFlipPenalty(int i) {
+        return -super.evaluateFlipPenalty(i);
     }
 
     @Override
-    public Double evaluateDoubleExchangeQBF(int in1, int in2, int out, Solution<Integer> sol) {
-        return -super.evaluateDoubleExchangeQBF(in1, in2, out, sol);
+    public double evaluateDoubleExchangeQBF(int in1, int in2, int out) {
+        return -super.evaluateDoubleExchangeQBF(in1, in2, out);
     }
 }
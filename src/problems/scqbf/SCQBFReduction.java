@@ -0,0 +1,229 @@
+package problems.scqbf;
+
+import solutions.IntSolution;
+
+import java.util.Arrays;
+
+/**
+ * Preprocessing of a MAX-SC-QBF instance that fixes the sets whose value is
+ * known in some optimal solution and builds the smaller instance of the sets
+ * left free:
+ * <ul>
+ * <li>a set that is the only cover of some variable belongs to every
+ * feasible solution;</li>
+ * <li>a set whose contribution is positive whatever the other sets is in
+ * some optimal solution, since inserting it improves any solution and keeps
+ * it feasible;</li>
+ * <li>a set whose contribution is never positive and whose variables are
+ * all covered by sets fixed in the solution is out of some optimal solution,
+ * since removing it never worsens a solution and keeps it feasible.</li>
+ * </ul>
+ * The rules are applied until none fixes another set. The reduced instance
+ * keeps the coefficients among the free sets, folds the coefficients with
+ * the sets fixed in the solution into its diagonal and their own value into
+ * its offset, so a reduced solution has the cost of the original solution it
+ * stands for. Its variables are those not covered by the fixed sets.
+ */
+public class SCQBFReduction {
+
+    private static final byte FREE = 0, IN = 1, OUT = 2;
+
+    public final SCQBFInstance original;
+
+    public final SCQBFInstance reduced;
+
+    /**
+     * free[k] = the set of the original instance standing as set k of the
+     * reduced one
+     */
+    private final int[] free;
+
+    /**
+     * the sets fixed in every solution of the reduced instance
+     */
+    private final int[] fixedIn;
+
+    private final int fixedOut;
+
+    public SCQBFReduction(SCQBFInstance original) {
+        this.original = original;
+        int n = original.size;
+        QBFMatrix A = original.A;
+        int numVars = original.S.getNumVars();
+        int[] buffer = new int[numVars];
+
+        byte[] state = new byte[n];
+
+        // sets that are the only cover of some variable
+        for (int j = 0; j < numVars; j++) {
+            if (original.coverers[j].length == 1) {
+                state[original.coverers[j][0]] = IN;
+            }
+        }
+
+        // sets whose contribution bounds decide their value
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 0; i < n; i++) {
+                if (state[i] != FREE) {
+                    continue;
+                }
+                double fixed = A.diagonal(i), min = 0, max = 0;
+                for (int j = 0; j < n; j++) {
+                    if (j == i || state[j] == OUT) {
+                        continue;
+                    }
+                    double coef = A.get(i, j);
+                    if (state[j] == IN) {
+                        fixed += coef;
+                    } else if (coef < 0) {
+                        min += coef;
+                    } else {
+                        max += coef;
+                    }
+                }
+                if (fixed + min > 0) {
+                    state[i] = IN;
+                    changed = true;
+                } else if (fixed + max <= 0 && coveredByFixedSets(i, state, buffer)) {
+                    state[i] = OUT;
+                    changed = true;
+                }
+            }
+        }
+
+        int numFree = 0, numIn = 0;
+        for (int i = 0; i < n; i++) {
+            if (state[i] == FREE) {
+                numFree++;
+            } else if (state[i] == IN) {
+                numIn++;
+            }
+        }
+        free = new int[numFree];
+        fixedIn = new int[numIn];
+        fixedOut = n - numFree - numIn;
+        for (int i = 0, f = 0, in = 0; i < n; i++) {
+            if (state[i] == FREE) {
+                free[f++] = i;
+            } else if (state[i] == IN) {
+                fixedIn[in++] = i;
+            }
+        }
+
+        reduced = new SCQBFInstance(reduceMatrix(), reduceCover(state, buffer), reduceOffset(), original.storage);
+    }
+
+    /**
+     * @return whether every variable of set i is covered by a set fixed in
+     *         the solution
+     */
+    private boolean coveredByFixedSets(int i, byte[] state, int[] buffer) {
+        int k = original.S.members(i, buffer);
+        for (int m = 0; m < k; m++) {
+            if (!coveredByFixedSet(buffer[m], state)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean coveredByFixedSet(int var, byte[] state) {
+        for (int s : original.coverers[var]) {
+            if (state[s] == IN) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private QBFMatrix reduceMatrix() {
+        QBFMatrix A = original.A;
+        QBFMatrix reducedA = QBFMatrix.create(free.length, original.storage);
+        for (int a = 0; a < free.length; a++) {
+            double diagonal = A.diagonal(free[a]);
+            for (int k : fixedIn) {
+                diagonal += A.get(free[a], k);
+            }
+            reducedA.setUpper(a, a, diagonal);
+            for (int b = a + 1; b < free.length; b++) {
+                reducedA.setUpper(a, b, A.get(free[a], free[b]));
+            }
+        }
+        return reducedA;
+    }
+
+    /**
+     * @return the cover matrix of the free sets over the variables left
+     *         uncovered by the sets fixed in the solution
+     */
+    private CoverMatrix reduceCover(byte[] state, int[] buffer) {
+        CoverMatrix S = original.S;
+        int numVars = S.getNumVars();
+
+        boolean[] covered = new boolean[numVars];
+        for (int k : fixedIn) {
+            int count = S.members(k, buffer);
+            for (int m = 0; m < count; m++) {
+                covered[buffer[m]] = true;
+            }
+        }
+        int[] varIndex = new int[numVars];
+        int numReducedVars = 0;
+        for (int j = 0; j < numVars; j++) {
+            varIndex[j] = covered[j] ? -1 : numReducedVars++;
+        }
+
+        int[][] members = new int[free.length][];
+        for (int a = 0; a < free.length; a++) {
+            int count = S.members(free[a], buffer);
+            int kept = 0;
+            for (int m = 0; m < count; m++) {
+                if (varIndex[buffer[m]] >= 0) {
+                    buffer[kept++] = varIndex[buffer[m]];
+                }
+            }
+            members[a] = Arrays.copyOf(buffer, kept);
+        }
+        return CoverMatrix.of(numReducedVars, members);
+    }
+
+    /**
+     * @return the value of the sets fixed in the solution alone
+     */
+    private double reduceOffset() {
+        QBFMatrix A = original.A;
+        double offset = original.offset;
+        for (int a = 0; a < fixedIn.length; a++) {
+            offset += A.diagonal(fixedIn[a]);
+            for (int b = a + 1; b < fixedIn.length; b++) {
+                offset += A.get(fixedIn[a], fixedIn[b]);
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * Maps a solution of the reduced instance back to the original one, by
+     * translating its sets and adding the sets fixed in the solution. The
+     * cost is kept, since both solutions have the same objective value.
+     */
+    public IntSolution expand(IntSolution sol) {
+        IntSolution expanded = new IntSolution(original.size);
+        for (int k = 0; k < sol.size(); k++) {
+            expanded.add(free[sol.get(k)]);
+        }
+        for (int k : fixedIn) {
+            expanded.add(k);
+        }
+        expanded.cost = sol.cost;
+        return expanded;
+    }
+
+    @Override
+    public String toString() {
+        return "Reduction: sets=[" + original.size + "], fixedIn=[" + fixedIn.length + "], fixedOut=[" + fixedOut
+                + "], free=[" + free.length + "], variables=[" + reduced.S.getNumVars() + "]";
+    }
+}
@@ -0,0 +1,110 @@
+package problems.scqbf;
+
+import java.util.Arrays;
+
+/**
+ * Cover matrix holding the sets as CSR index lists, for instances whose sets
+ * are small compared to the number of variables. Membership is answered by
+ * binary search over the sorted list of the set.
+ */
+final class SparseCoverMatrix extends CoverMatrix {
+
+    //the variables of set i are index[offset[i]] .. index[offset[i + 1] - 1]
+    private final int[] offset;
+
+    private final int[] index;
+
+    SparseCoverMatrix(int numVars, int[][] members) {
+        super(members.length, numVars);
+        offset = new int[numSets + 1];
+        for (int i = 0; i < numSets; i++) {
+            offset[i + 1] = offset[i] + members[i].length;
+        }
+        index = new int[offset[numSets]];
+        for (int i = 0; i < numSets; i++) {
+            System.arraycopy(members[i], 0, index, offset[i], members[i].length);
+            Arrays.sort(index, offset[i], offset[i + 1]);
+        }
+    }
+
+    @Override
+    public boolean covers(int set, int var) {
+        return Arrays.binarySearch(index, offset[set], offset[set + 1], var) >= 0;
+    }
+
+    @Override
+    public int cardinality(int set) {
+        return offset[set + 1] - offset[set];
+    }
+
+    @Override
+    public int members(int set, int[] buffer) {
+        int count = offset[set + 1] - offset[set];
+        System.arraycopy(index, offset[set], buffer, 0, count);
+        return count;
+    }
+
+    @Override
+    public void orInto(int set, long[] bits) {
+        for (int k = offset[set]; k < offset[set + 1]; k++) {
+            bits[index[k] >>> 6] |= 1L << index[k];
+        }
+    }
+
+    @Override
+    public boolean intersects(int set, long[] bits) {
+        for (int k = offset[set]; k < offset[set + 1]; k++) {
+            if ((bits[index[k] >>> 6] & (1L << index[k])) != 0)
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public int countCovered(long[] bits, int set1, int set2) {
+        int count = 0;
+        for (int k = offset[set1]; k < offset[set1 + 1]; k++) {
+            if ((bits[index[k] >>> 6] & (1L << index[k])) != 0)
+                count++;
+        }
+        if (set2 >= 0) {
+            for (int k = offset[set2]; k < offset[set2 + 1]; k++) {
+                int j = index[k];
+                if ((bits[j >>> 6] & (1L << j)) != 0 && !covers(set1, j))
+                    count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int countCovered(long[] bits, long[] moreBits, int set1, int set2) {
+        int count = 0;
+        for (int k = offset[set1]; k < offset[set1 + 1]; k++) {
+            if (((bits[index[k] >>> 6] | moreBits[index[k] >>> 6]) & (1L << index[k])) != 0)
+                count++;
+        }
+        if (set2 >= 0) {
+            for (int k = offset[set2]; k < offset[set2 + 1]; k++) {
+                int j = index[k];
+                if (((bits[j >>> 6] | moreBits[j >>> 6]) & (1L << j)) != 0 && !covers(set1, j))
+                    count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public boolean coversAll(long[] bits, int set1, int set2) {
+        for (int w = 0; w < bits.length; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                int j = (w << 6) + Long.numberOfTrailingZeros(word);
+                if (!covers(set1, j) && (set2 < 0 || !covers(set2, j)))
+                    return false;
+                word &= word - 1;
+            }
+        }
+        return true;
+    }
+}
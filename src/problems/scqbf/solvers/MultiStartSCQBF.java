@@ -0,0 +1,158 @@
+package problems.scqbf.solvers;
+
+import metaheuristics.tabusearch.AbstractTS;
+import metaheuristics.tabusearch.ElitePool;
+import metaheuristics.tabusearch.ElitePool.Elite;
+import solutions.IntSolution;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A multi-start GRASP + TS search over several TSSCQBF workers, one thread
+ * each. It runs in two phases:
+ * <ul>
+ * <li>breadth: each worker repeatedly builds a randomized solution with the
+ * constructive heuristic and improves it by a short TS of a fixed number of
+ * iterations, offering each local optimum to a bounded elite pool;</li>
+ * <li>depth: the rest of the time, each worker runs a long TS from one of
+ * the best local optima, the workers cooperating through the same pool.</li>
+ * </ul>
+ * The workers are meant to share the same {@link problems.scqbf.SCQBFInstance},
+ * which is only read.
+ */
+public class MultiStartSCQBF {
+
+    private final List<TSSCQBF> workers = new ArrayList<>();
+
+    private final int maxTimeSeconds;
+
+    /**
+     * the fraction of the time spent on the breadth phase
+     */
+    private final double breadthFraction;
+
+    /**
+     * the number of iterations of the TS from each start of the breadth phase
+     */
+    private final int startIterations;
+
+    /**
+     * the best local optima, shared by the workers
+     */
+    private final ElitePool elitePool;
+
+    private final int restartAfter;
+
+    /**
+     * @param maxTimeSeconds
+     *            the time limit of the whole search.
+     * @param breadthFraction
+     *            the fraction of the time spent generating starts.
+     * @param startIterations
+     *            the number of TS iterations from each start.
+     * @param poolSize
+     *            the number of local optima kept.
+     * @param restartAfter
+     *            the number of iterations without improvement after which a
+     *            worker of the depth phase restarts from an elite.
+     */
+    public MultiStartSCQBF(int maxTimeSeconds, double breadthFraction, int startIterations, int poolSize,
+            int restartAfter) {
+        this.maxTimeSeconds = maxTimeSeconds;
+        this.breadthFraction = breadthFraction;
+        this.startIterations = startIterations;
+        this.elitePool = new ElitePool(poolSize);
+        this.restartAfter = restartAfter;
+    }
+
+    /**
+     * Adds a worker. Its constructive heuristic should be randomized (alpha
+     * > 0), otherwise its starts barely differ.
+     */
+    public void add(TSSCQBF solver) {
+        solver.setLabel("worker#" + workers.size());
+        workers.add(solver);
+    }
+
+    /**
+     * Runs both phases until the time limit and waits for every worker. The
+     * breadth phase prints each new best local optimum, and the incumbent
+     * when it ends.
+     *
+     * @return the best solution found.
+     */
+    public IntSolution solve() throws InterruptedException, ExecutionException {
+        long startNanos = System.nanoTime();
+        long breadthEnd = startNanos + (long) (breadthFraction * maxTimeSeconds * 1e9);
+        long deadline = startNanos + maxTimeSeconds * 1_000_000_000L;
+
+        ExecutorService executor = Executors.newFixedThreadPool(workers.size());
+        try {
+            // breadth phase: many short searches from randomized starts
+            AtomicInteger starts = new AtomicInteger();
+            List<Future<?>> results = new ArrayList<>();
+            for (int w = 0; w < workers.size(); w++) {
+                int workerId = w;
+                TSSCQBF solver = workers.get(w);
+                results.add(executor.submit(() -> {
+                    solver.setQuiet(true);
+                    solver.setMaxIterations(startIterations);
+                    do {
+                        IntSolution localOptimum = solver.solve();
+                        int start = starts.incrementAndGet();
+                        Elite incumbent = elitePool.best();
+                        //the workers are quiet, so the new incumbents are printed here
+                        if (elitePool.publish(workerId, localOptimum)
+                                && (incumbent == null || localOptimum.cost < incumbent.sol.cost - AbstractTS.EPSILON)) {
+                            System.out.printf("start=%d t=%.2f cost=%.2f size=%d\n", start,
+                                    (System.nanoTime() - startNanos) / 1e9, localOptimum.cost, localOptimum.size());
+                        }
+                    } while (System.nanoTime() < breadthEnd);
+                    solver.setQuiet(false);
+                    solver.setMaxIterations(0);
+                }));
+            }
+            for (var result : results) {
+                result.get();
+            }
+            System.out.printf("t=%.2f starts=%d best local optimum=%s\n", (System.nanoTime() - startNanos) / 1e9,
+                    starts.get(), elitePool.best().sol);
+
+            // depth phase: long searches from the best local optima, each new
+            // best being published to the pool by the cooperating workers,
+            // over the time left, so that they end by themselves
+            results.clear();
+            int depthSeconds = (int) Math.max(0, (deadline - System.nanoTime()) / 1_000_000_000L);
+            for (int w = 0; w < workers.size(); w++) {
+                TSSCQBF solver = workers.get(w);
+                IntSolution initial = elitePool.get(w % elitePool.size()).sol;
+                solver.cooperate(elitePool, w, restartAfter);
+                solver.setMaxTimeSeconds(depthSeconds);
+                results.add(executor.submit(() -> solver.solveFrom(initial)));
+            }
+            for (var result : results) {
+                try {
+                    result.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    //a worker ending its last iteration late is stopped at the deadline
+                    workers.forEach(TSSCQBF::stop);
+                    result.get();
+                }
+            }
+
+            IntSolution bestSol = elitePool.best().sol;
+            System.out.printf("Best solution from multistart: %s\n", bestSol);
+            return bestSol;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package problems.scqbf.solvers;
+
+import metaheuristics.tabusearch.ElitePool;
+import solutions.IntSolution;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs several TSSCQBF configurations concurrently, one thread each, and
+ * reports the best solution found among all of them. The solvers are meant
+ * to share the same {@link problems.scqbf.SCQBFInstance}, which is only read.
+ * Optionally the configurations cooperate through an {@link ElitePool}.
+ */
+public class PortfolioSCQBF {
+
+    private final Map<String, TSSCQBF> solvers = new LinkedHashMap<>();
+
+    /**
+     * the pool shared by the configurations, or null when they run
+     * independently
+     */
+    private ElitePool elitePool;
+
+    private int restartAfter;
+
+    /**
+     * Adds a configuration to the portfolio. Its output lines are prefixed
+     * by the given name.
+     */
+    public void add(String name, TSSCQBF solver) {
+        solver.setLabel(name);
+        solvers.put(name, solver);
+    }
+
+    /**
+     * Makes the configurations cooperate: each one publishes its best
+     * solutions to a shared elite pool of the given size and, after
+     * restartAfter iterations without improvement, restarts from an elite
+     * found by another configuration.
+     */
+    public void cooperate(int poolSize, int restartAfter) {
+        this.elitePool = new ElitePool(poolSize);
+        this.restartAfter = restartAfter;
+    }
+
+    /**
+     * Runs every configuration until its own time limit and waits for all of
+     * them.
+     *
+     * @return the best solution among all configurations.
+     */
+    public IntSolution solve() throws InterruptedException, ExecutionException {
+        ExecutorService executor = Executors.newFixedThreadPool(solvers.size());
+        try {
+            Map<String, Future<IntSolution>> results = new LinkedHashMap<>();
+            int workerId = 0;
+            for (var entry : solvers.entrySet()) {
+                if (elitePool != null) {
+                    entry.getValue().cooperate(elitePool, workerId++, restartAfter);
+                }
+                results.put(entry.getKey(), executor.submit(entry.getValue()::solve));
+            }
+
+            String bestName = null;
+            IntSolution bestSol = null;
+            for (var entry : results.entrySet()) {
+                IntSolution sol = entry.getValue().get();
+                if (bestSol == null || sol.cost < bestSol.cost) {
+                    bestName = entry.getKey();
+                    bestSol = sol;
+                }
+            }
+
+            System.out.printf("Best solution from portfolio: method=%s %s\n", bestName, bestSol);
+            return bestSol;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -1,20 +1,148 @@
 package problems.scqbf.solvers;
 
 import metaheuristics.tabusearch.AbstractTS;
+import metaheuristics.tabusearch.EjectionChain;
+import metaheuristics.tabusearch.VisitedSolutions;
+import problems.scqbf.SCQBF;
+import problems.scqbf.SCQBFInstance;
 import problems.scqbf.SCQBFInverse;
-import solutions.Solution;
+import solutions.IndexedMinHeap;
+import solutions.IntSet;
+import solutions.IntSolution;
 
 import java.io.IOException;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
-public class TSSCQBF extends AbstractTS<Integer> {
+public class TSSCQBF extends AbstractTS {
+    //marks the absence of an element in a move
     private final int fake = -1;
 
     private boolean useBestImprove;
 
+    /**
+     * the number of threads scanning the neighborhood in the best improving
+     * mode, 1 for a sequential scan
+     */
+    private int parallelism = 1;
+
+    /**
+     * the pool scanning the neighborhood in parallel while a search runs, or
+     * null for a sequential scan
+     */
+    private ForkJoinPool pool;
+
+    /**
+     * the number of insertion and of removal candidates kept by the
+     * candidate list strategy, or 0 when the strategy is disabled
+     */
+    private int candidateListSize;
+
+    /**
+     * every how many iterations the candidate list strategy scans the full
+     * neighborhood instead of the restricted one
+     */
+    private int fullScanInterval;
+
+    /**
+     * the best insertion and removal candidates of the candidate list
+     * strategy, ranked by the cost variation of their single flip
+     */
+    private BestCandidates bestIns, bestOuts;
+
+    /**
+     * whether the best insertion and removal, and the candidates of the
+     * candidate list strategy, are taken from the gain queues of the
+     * evaluator instead of a scan, which is only the case on sparse
+     * instances (none of the shipped ones is)
+     */
+    private boolean useGainQueues;
+
+    /**
+     * how many moves, as a multiple of the candidate list size or of the
+     * tenures, a scan of a gain queue lists at most, so that tabu and
+     * infeasible moves cannot make it drain the whole queue; past that, the
+     * moves are scanned in full instead
+     */
+    private static final int SCAN_VISIT_FACTOR = 4;
+
+    /**
+     * the engine trying ejection chains after each move reaching a new best
+     * solution, or null when ejection chains are disabled
+     */
+    private EjectionChain ejectionChain;
+
+    /**
+     * the weight of each uncovered variable in the cost while the strategic
+     * oscillation is enabled, or 0 when infeasible moves are rejected
+     */
+    private double penalty;
+
+    /**
+     * the range of the penalty weight of the strategic oscillation
+     */
+    private double minPenalty, maxPenalty;
+
+    /**
+     * for how many consecutive iterations the incumbent solution has been
+     * feasible (positive) or infeasible (negative)
+     */
+    private int feasibilityStreak;
+
+    /**
+     * after how many consecutive iterations on the same side of the
+     * feasibility boundary the penalty weight changes, and by which factor
+     */
+    private static final int OSCILLATION_PERIOD = 10;
+    private static final double PENALTY_FACTOR = 2;
+
+    /**
+     * the solutions visited by the reactive tabu search, or null when the
+     * tenure is fixed
+     */
+    private VisitedSolutions visited;
+
+    /**
+     * the Zobrist hash of the incumbent solution, kept up to date by every
+     * flip, and the solution it was computed for
+     */
+    private long hash, lastHash;
+    private IntSolution hashedSol;
+
+    /**
+     * the tenure of the reactive tabu search, its range, the iteration it
+     * last changed and the moving average of the length of the cycles found
+     */
+    private double reactiveTenure;
+    private double startTenure, minTenure, maxTenure;
+    private int lastTenureChange;
+    private double meanCycleLength;
+
+    /**
+     * the factors growing the tenure on a repetition and shrinking it after
+     * a mean cycle length without any, the weight of the last cycle in the
+     * moving average, the longest revisit counted as a cycle, and the base 2
+     * logarithm of the number of visits remembered
+     */
+    private static final double TENURE_INCREASE = 1.1, TENURE_DECREASE = 0.9;
+    private static final double CYCLE_SMOOTHING = 0.1;
+    private static final int MAX_CYCLE_LENGTH = 50;
+    private static final int VISITED_CAPACITY_BITS = 20;
+
+    /**
+     * the objective function, with its problem-specific operations
+     */
+    private final SCQBF evaluator;
+
+    /**
+     * the instance being solved
+     */
+    private final SCQBFInstance instance;
+
     public TSSCQBF(
             Integer tenure,
             Integer maxTimeSeconds,
@@ -23,16 +151,163 @@ public class TSSCQBF extends AbstractTS<Integer> {
             Boolean enableDiversification,
             Boolean enableIntensification
             ) throws IOException {
-        super(new SCQBFInverse(filename), tenure, maxTimeSeconds, enableDiversification, enableIntensification);
+        this(tenure, maxTimeSeconds, bestImprove, new SCQBFInstance(filename), enableDiversification, enableIntensification,
+                DEFAULT_SEED);
+    }
+
+    /*
+        solver over an instance already loaded, which may be shared with
+        other solvers running concurrently, each one with its own seed
+    */
+    public TSSCQBF(
+            Integer tenure,
+            Integer maxTimeSeconds,
+            Boolean bestImprove,
+            SCQBFInstance instance,
+            Boolean enableDiversification,
+            Boolean enableIntensification,
+            Long seed
+            ) {
+        super(new SCQBFInverse(instance), tenure, maxTimeSeconds, enableDiversification, enableIntensification, seed);
         this.useBestImprove = bestImprove;
+        this.evaluator = (SCQBF) ObjFunction;
+        this.instance = instance;
+        this.useGainQueues = evaluator.enableGainQueues();
+    }
+
+    /**
+     * Makes the best improving mode split the neighborhood scan across the
+     * given number of threads (1 or less keeps the scan sequential). The
+     * chosen move is the same one the sequential scan would choose. The
+     * threads only live while a search runs.
+     */
+    public void setParallelism(int threads) {
+        parallelism = Math.max(threads, 1);
+    }
+
+    @Override
+    public IntSolution solveFrom(IntSolution initial) {
+        if (visited != null) {
+            resetReactiveTenure();
+        }
+        pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        try {
+            return super.solveFrom(initial);
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+                pool = null;
+            }
+        }
+    }
+
+    /**
+     * Sets how many moves the evaluator applies incrementally between two
+     * full evaluations of the incumbent solution, 0 for none.
+     *
+     * @see SCQBF#setDriftCheckInterval
+     */
+    public void setDriftCheckInterval(int moves) {
+        evaluator.setDriftCheckInterval(moves);
+    }
+
+    /**
+     * Enables the candidate list strategy: most iterations evaluate all
+     * insertions and removals but only the exchanges between the k best
+     * insertion candidates and the k best removal candidates. The full
+     * neighborhood, scanned as without the strategy, is used every
+     * fullScanInterval iterations and whenever the restricted one has no
+     * admissible move. A k of 0 disables the strategy. On sparse instances
+     * the candidates come from the gain queues of the evaluator instead of a
+     * scan of all insertions and removals, unless too many of the best moves
+     * listed are tabu or infeasible.
+     *
+     * @throws IllegalArgumentException
+     *             if the strategy is enabled with a fullScanInterval below 1.
+     */
+    public void setCandidateListStrategy(int k, int fullScanInterval) {
+        if (k > 0 && fullScanInterval < 1)
+            throw new IllegalArgumentException("Full scan interval must be positive: " + fullScanInterval);
+
+        this.candidateListSize = k;
+        this.fullScanInterval = fullScanInterval;
+        this.bestIns = new BestCandidates(k);
+        this.bestOuts = new BestCandidates(k);
+    }
+
+    /**
+     * Makes every move reaching a new best solution be followed by ejection
+     * chains of up to maxDepth flips, applied while they improve the
+     * solution. A maxDepth of 0 disables the chains.
+     */
+    public void setEjectionChains(int maxDepth) {
+        ejectionChain = maxDepth > 0 ? new EjectionChain(ObjFunction, maxDepth) : null;
+    }
+
+    /**
+     * Enables the reactive tabu search: the incumbent solution is hashed
+     * incrementally and looked up among the visited ones after each move. A
+     * repetition within a short cycle grows the tenure, and a mean cycle
+     * length without any shrinks it. The tenure given to the constructor is
+     * the starting one, used from the first iteration of every search, and
+     * the tenure stays within [2, max(n/4, starting tenure)]: the n/4 cap
+     * keeps some moves admissible on small instances, but never lowers the
+     * configured tenure.
+     */
+    public void setReactiveTenure(boolean enabled) {
+        //the keys are drawn from a generator of their own, so std+react builds the same initial solution as std
+        visited = enabled ? new VisitedSolutions(instance.size, VISITED_CAPACITY_BITS,
+                new SplittableRandom(seed).split().nextLong()) : null;
+        minTenure = 2;
+        startTenure = Math.max(tenureAdded, minTenure);
+        maxTenure = Math.max(instance.size / 4.0, startTenure);
+        if (visited != null) {
+            resetReactiveTenure();
+        }
+    }
+
+    /**
+     * Forgets the visited solutions and restores the starting tenure, so
+     * that each search reacts only to its own repetitions.
+     */
+    private void resetReactiveTenure() {
+        visited.clear();
+        hashedSol = null;
+        lastHash = 0;
+        reactiveTenure = startTenure;
+        lastTenureChange = 0;
+        meanCycleLength = 2 * reactiveTenure;
+        int tenure = (int) Math.round(reactiveTenure);
+        setTenures(tenure, tenure);
+    }
+
+    /**
+     * Enables the strategic oscillation: moves that uncover variables are
+     * penalized by a weight per uncovered variable instead of rejected, so
+     * that the search may cross infeasible regions, and only feasible
+     * solutions are recorded as best. The weight starts at the mean largest
+     * coefficient of the variables, is doubled after some iterations spent
+     * infeasible and halved after as many spent feasible.
+     */
+    public void setStrategicOscillation(boolean enabled) {
+        double scale = 0;
+        for (double coef : instance.maxCoefficient) {
+            scale += coef / instance.size;
+        }
+        scale = Math.max(scale, 1.0);
+        minPenalty = scale / 1024;
+        maxPenalty = scale * 1024 * 1024;
+        penalty = enabled ? scale : 0;
+        feasibilityStreak = 0;
+        evaluator.setPenalty(penalty);
     }
 
     /*
         create candidate list with all subsets
     */
     @Override
-    public ArrayList<Integer> makeCL() {
-        ArrayList<Integer> _CL = new ArrayList<>();
+    public IntSet makeCL() {
+        IntSet _CL = new IntSet(ObjFunction.getDomainSize());
         for (int i = 0; i < ObjFunction.getDomainSize(); i++) {
             _CL.add(i);
         }
@@ -43,24 +318,14 @@ public class TSSCQBF extends AbstractTS<Integer> {
         create empty RCL that will be updated during construction phase
     */
     @Override
-    public ArrayList<Integer> makeRCL() {
-        return new ArrayList<>();
-    }
-
-    /*
-        create tabu list of size 2*tenure
-    */
-    @Override
-    public ArrayDeque<Integer> makeTL() {
-        ArrayDeque<Integer> _TS = new ArrayDeque<>(2*tenure);
-        for (int i = 0; i < 2*tenure; i++) {
-            _TS.add(fake);
-        }
-        return _TS;
+    public IntSet makeRCL() {
+        return new IntSet(ObjFunction.getDomainSize());
     }
 
     /*
-        update CL to include only subsets that can cover uncovered variables
+        update CL to include only subsets that can cover uncovered variables;
+        the evaluator keeps this list up to date as moves are applied, so CL
+        is never modified here
      */
     @Override
     public void updateCL() {
@@ -68,15 +333,96 @@ public class TSSCQBF extends AbstractTS<Integer> {
     }
 
     @Override
-    public Solution<Integer> createEmptySol() {
-        Solution<Integer> sol = new Solution<>();
+    public IntSolution createEmptySol() {
+        IntSolution sol = new IntSolution(ObjFunction.getDomainSize());
         sol.cost = 0.0;
         return sol;
     }
 
     @Override
-    public Solution<Integer> neighborhoodMove() {
-        if (useBestImprove) {
+    public IntSolution neighborhoodMove() {
+        IntSolution result = scanNeighborhood();
+
+        if (penalty > 0) {
+            adaptPenalty();
+        }
+
+        //a new best solution, which is feasible, is improved further by ejection chains
+        if (ejectionChain != null && bestSol.cost - sol.cost > EPSILON && ObjFunction.isFeasible()) {
+            while (ejectionChainMove()) {
+                // each chain starts from the solution left by the previous one
+            }
+        }
+
+        if (visited != null) {
+            reactToRepetitions();
+        }
+        return result;
+    }
+
+    /**
+     * Looks the incumbent solution up among the visited ones and adapts the
+     * tenure: a repetition grows it and updates the mean cycle length, while
+     * a mean cycle length of iterations without repetitions shrinks it.
+     * The hash is recomputed when the incumbent solution was replaced, by
+     * the constructive heuristic or a restart, instead of flipped.
+     */
+    private void reactToRepetitions() {
+        if (sol != hashedSol) {
+            hash = 0;
+            for (int k = 0; k < sol.size(); k++) {
+                hash ^= visited.key(sol.get(k));
+            }
+            hashedSol = sol;
+        }
+
+        //a move left the solution unchanged only when none was admissible
+        int lastVisit = hash == lastHash ? 0 : visited.visit(hash, iteration);
+        lastHash = hash;
+        if (lastVisit > 0 && iteration - lastVisit <= MAX_CYCLE_LENGTH) {
+            int cycleLength = iteration - lastVisit;
+            meanCycleLength = (1 - CYCLE_SMOOTHING) * meanCycleLength + CYCLE_SMOOTHING * cycleLength;
+            reactiveTenure = Math.min(reactiveTenure * TENURE_INCREASE + 1, maxTenure);
+            lastTenureChange = iteration;
+        } else if (iteration - lastTenureChange > meanCycleLength) {
+            reactiveTenure = Math.max(reactiveTenure * TENURE_DECREASE, minTenure);
+            lastTenureChange = iteration;
+        }
+        int tenure = (int) Math.round(reactiveTenure);
+        setTenures(tenure, tenure);
+    }
+
+    /**
+     * Doubles the penalty weight when the incumbent solution stayed
+     * infeasible for the last iterations, which pushes the search back to
+     * the feasible region, and halves it when it stayed feasible, which lets
+     * the search cross the boundary again.
+     */
+    private void adaptPenalty() {
+        if (ObjFunction.isFeasible()) {
+            feasibilityStreak = Math.max(feasibilityStreak, 0) + 1;
+        } else {
+            feasibilityStreak = Math.min(feasibilityStreak, 0) - 1;
+        }
+
+        if (feasibilityStreak >= OSCILLATION_PERIOD) {
+            penalty = Math.max(penalty / PENALTY_FACTOR, minPenalty);
+            feasibilityStreak = 0;
+            evaluator.setPenalty(penalty);
+        } else if (feasibilityStreak <= -OSCILLATION_PERIOD) {
+            penalty = Math.min(penalty * PENALTY_FACTOR, maxPenalty);
+            feasibilityStreak = 0;
+            evaluator.setPenalty(penalty);
+        }
+    }
+
+    private IntSolution scanNeighborhood() {
+        if (candidateListSize > 0 && iteration % fullScanInterval != 0 && candidateListMove()) {
+            return sol;
+        }
+        if (useBestImprove && pool != null) {
+            return parallelBestImprovingMove();
+        } else if (useBestImprove) {
             return bestImprovingMove();
         } else {
             return firstImprovingMove();
@@ -85,16 +431,25 @@ public class TSSCQBF extends AbstractTS<Integer> {
 
     @Override
     public void updateVarFrequency() {
-        if (enableDiversification) {
-            for (int varIdx : sol) {
-                varfrequency[varIdx]++;
+        if (enableDiversification || elitePool != null) {
+            for (int k = 0; k < sol.size(); k++) {
+                varfrequency[sol.get(k)]++;
             }
         }
     }
 
     @Override
     public void diverfisyByRestart(double factor) {
-        sol = new Solution<>(bestSol);
+        restartFrom(bestSol, factor);
+    }
+
+    /*
+        the perturbation adds the variables least used by this solver, which
+        keeps the solution feasible
+    */
+    @Override
+    public void restartFrom(IntSolution start, double factor) {
+        sol = new IntSolution(start);
 
         int k = (int) Math.ceil(ObjFunction.getDomainSize() * factor);
 
@@ -105,30 +460,73 @@ public class TSSCQBF extends AbstractTS<Integer> {
         indices.sort(Comparator.comparingInt(i -> varfrequency[i]));
         List<Integer> leastUsedVars = indices.subList(0, Math.min(k, indices.size()));
 
-        for (Integer v : leastUsedVars) {
-            sol.add(v);
-            CL.remove(v);
+        for (int v : leastUsedVars) {
+            if (!sol.contains(v)) {
+                sol.add(v);
+            }
         }
+        ObjFunction.bind(sol);
     }
 
     @Override
-    public Solution<Integer> intensify() {
+    public IntSolution intensify() {
         return intensificationMove();
     }
 
-    private Solution<Integer> intensificationMove() {
-        Double minDeltaCost;
-        Integer bestIn1 = null, bestIn2 = null, bestOut = null;
-
-        minDeltaCost = Double.POSITIVE_INFINITY;
+    /**
+     * Applies the best improving move inserting two elements of CL and
+     * removing one element of the solution, if any. Each unordered pair of
+     * entering elements is tried once. The cost variation of a move is the
+     * sum of the single flip variations of its three elements plus three
+     * pairwise interactions, each one bounded by the largest coefficient of
+     * the elements involved; scanning the elements by increasing flip
+     * variation, the loops stop as soon as this optimistic bound cannot beat
+     * the best move found. Under a coverage penalty, the two insertions may
+     * also lower the penalty by at most the weight times the variables each
+     * one covers, which the bound allows for too.
+     */
+    private IntSolution intensificationMove() {
         updateCL();
 
-        for (Integer in1 : CL) {
-            for (Integer in2 : CL) {
-                for (Integer out : sol) {
-                    Double deltaCost = ObjFunction.evaluateDoubleExchangeCost(in1, in2, out, sol);
-                    //found an improving move
-                    if (deltaCost < 0 && deltaCost < minDeltaCost) {
+        int numIn = CL.size(), numOut = sol.size();
+        if (numIn < 2 || numOut == 0) {
+            return null;
+        }
+        int[] ins = new int[numIn], outs = new int[numOut];
+        double[] gainIn = new double[numIn], gainOut = new double[numOut];
+        double maxCoefficient = Math.max(sortByFlipCost(CL, ins, gainIn), sortByFlipCost(sol, outs, gainOut));
+        double pairBound = 3 * maxCoefficient;
+        if (penalty > 0) {
+            int maxCardinality = 0;
+            for (int a = 0; a < numIn; a++) {
+                maxCardinality = Math.max(maxCardinality, instance.S.cardinality(ins[a]));
+            }
+            pairBound += 2 * penalty * maxCardinality;
+        }
+
+        //only improving moves are accepted
+        double minDeltaCost = 0;
+        int bestIn1 = fake, bestIn2 = fake, bestOut = fake;
+
+        for (int a = 0; a + 1 < numIn; a++) {
+            if (gainIn[a] + gainIn[a + 1] + gainOut[0] - pairBound >= minDeltaCost) {
+                break;
+            }
+            int in1 = ins[a];
+            for (int b = a + 1; b < numIn; b++) {
+                double pairGain = gainIn[a] + gainIn[b];
+                if (pairGain + gainOut[0] - pairBound >= minDeltaCost) {
+                    break;
+                }
+                int in2 = ins[b];
+                for (int c = 0; c < numOut; c++) {
+                    if (pairGain + gainOut[c] - pairBound >= minDeltaCost) {
+                        break;
+                    }
+                    int out = outs[c];
+                    double deltaCost = ObjFunction.evaluateDoubleExchange(in1, in2, out);
+                    //found a better improving move
+                    if (deltaCost < minDeltaCost) {
                         minDeltaCost = deltaCost;
                         bestIn1 = in1;
                         bestIn2 = in2;
@@ -139,7 +537,7 @@ public class TSSCQBF extends AbstractTS<Integer> {
         }
 
         //no improve move found
-        if (minDeltaCost >= 0) {
+        if (bestOut == fake) {
             return null;
         }
 
@@ -148,102 +546,422 @@ public class TSSCQBF extends AbstractTS<Integer> {
         return sol;
     }
 
-    private Solution<Integer> bestImprovingMove() {
-        Double minDeltaCost;
-        Integer bestCandIn = null, bestCandOut = null;
+    /**
+     * Lists the elements of a set by increasing cost variation of their flip
+     * in the bound solution, ignoring feasibility.
+     *
+     * @return the largest interaction coefficient among the elements.
+     */
+    private double sortByFlipCost(IntSet elems, int[] sorted, double[] flipCosts) {
+        var queue = new IndexedMinHeap(ObjFunction.getDomainSize());
+        double maxCoefficient = 0;
+        for (int k = 0; k < elems.size(); k++) {
+            int elem = elems.get(k);
+            queue.add(elem, evaluator.evaluateFlipQBF(elem));
+            maxCoefficient = Math.max(maxCoefficient, instance.maxCoefficient[elem]);
+        }
+        for (int k = 0; !queue.isEmpty(); k++) {
+            flipCosts[k] = queue.priority(queue.peek());
+            sorted[k] = queue.poll();
+        }
+        return maxCoefficient;
+    }
+
+    private IntSolution bestImprovingMove() {
+        Move best = new Move();
 
-        minDeltaCost = Double.POSITIVE_INFINITY;
         updateCL();
 
-        // Evaluate insertions
-        for (Integer candIn : CL) {
-            Double deltaCost = ObjFunction.evaluateInsertionCost(candIn, sol);
-            if (!TL.contains(candIn) || sol.cost+deltaCost < bestSol.cost) {
-                if (deltaCost < minDeltaCost) {
-                    minDeltaCost = deltaCost;
-                    bestCandIn = candIn;
-                    bestCandOut = null;
+        // Evaluate insertions and removals, from the gain queues when possible
+        if (!queuedFlips(best)) {
+            for (int a = 0; a < CL.size(); a++) {
+                int candIn = CL.get(a);
+                double deltaCost = ObjFunction.evaluateInsertion(candIn);
+                if (!isTabu(candIn) || aspires(deltaCost)) {
+                    best.offer(deltaCost, 0, candIn, fake);
                 }
             }
-        }
-        // Evaluate removals
-        for (Integer candOut : sol) {
-            Double deltaCost = ObjFunction.evaluateRemovalCost(candOut, sol);
-            if (!TL.contains(candOut) || sol.cost+deltaCost < bestSol.cost) {
-                if (deltaCost < minDeltaCost) {
-                    minDeltaCost = deltaCost;
-                    bestCandIn = null;
-                    bestCandOut = candOut;
+            for (int b = 0; b < sol.size(); b++) {
+                int candOut = sol.get(b);
+                double deltaCost = ObjFunction.evaluateRemoval(candOut);
+                if (!isTabu(candOut) || aspires(deltaCost)) {
+                    best.offer(deltaCost, 0, fake, candOut);
                 }
             }
         }
         // Evaluate exchanges
-        for (Integer candIn : CL) {
-            for (Integer candOut : sol) {
-                Double deltaCost = ObjFunction.evaluateExchangeCost(candIn, candOut, sol);
-                if ((!TL.contains(candIn) && !TL.contains(candOut)) || sol.cost+deltaCost < bestSol.cost) {
-                    if (deltaCost < minDeltaCost) {
-                        minDeltaCost = deltaCost;
-                        bestCandIn = candIn;
-                        bestCandOut = candOut;
-                    }
+        for (int a = 0; a < CL.size(); a++) {
+            int candIn = CL.get(a);
+            for (int b = 0; b < sol.size(); b++) {
+                int candOut = sol.get(b);
+                double deltaCost = ObjFunction.evaluateExchange(candIn, candOut);
+                if ((!isTabu(candIn) && !isTabu(candOut)) || aspires(deltaCost)) {
+                    best.offer(deltaCost, 0, candIn, candOut);
                 }
             }
         }
 
-        applyMoveStd(bestCandIn, bestCandOut);
+        applyMoveStd(best.in, best.out);
 
         return sol;
     }
 
-    private Solution<Integer> firstImprovingMove() {
+    /**
+     * Applies the best admissible move among all insertions, all removals
+     * and the exchanges between the best insertion and removal candidates.
+     *
+     * @return false when the restricted neighborhood has no admissible move,
+     *         in which case the solution is left untouched.
+     */
+    private boolean candidateListMove() {
+        Move best = new Move();
+
         updateCL();
+        bestIns.clear();
+        bestOuts.clear();
+
+        //the gain queues ignore the coverage penalty, so they do not rank penalized moves
+        boolean queued = false;
+        if (useGainQueues && penalty == 0) {
+            int maxVisits = SCAN_VISIT_FACTOR * candidateListSize;
+            var insertions = new CandidateScan(bestIns, best, true, maxVisits);
+            var removals = new CandidateScan(bestOuts, best, false, maxVisits);
+            evaluator.visitInsertions(insertions);
+            evaluator.visitRemovals(removals);
+            queued = !insertions.capped && !removals.capped;
+            if (!queued) {
+                best = new Move();
+                bestIns.clear();
+                bestOuts.clear();
+            }
+        }
+        if (!queued) {
+            // Evaluate insertions
+            for (int a = 0; a < CL.size(); a++) {
+                int candIn = CL.get(a);
+                double deltaCost = ObjFunction.evaluateInsertion(candIn);
+                bestIns.offer(candIn, deltaCost);
+                if (!isTabu(candIn) || aspires(deltaCost)) {
+                    best.offer(deltaCost, 0, candIn, fake);
+                }
+            }
+            // Evaluate removals
+            for (int b = 0; b < sol.size(); b++) {
+                int candOut = sol.get(b);
+                double deltaCost = ObjFunction.evaluateRemoval(candOut);
+                // ranked by the plain flip, so that removals only feasible
+                // in an exchange are candidates too
+                bestOuts.offer(candOut, evaluator.evaluateFlipQBF(candOut));
+                if (!isTabu(candOut) || aspires(deltaCost)) {
+                    best.offer(deltaCost, 0, fake, candOut);
+                }
+            }
+        }
+        // Evaluate the exchanges between the best candidates
+        for (int a = 0; a < bestIns.size; a++) {
+            int candIn = bestIns.elems[a];
+            for (int b = 0; b < bestOuts.size; b++) {
+                int candOut = bestOuts.elems[b];
+                double deltaCost = ObjFunction.evaluateExchange(candIn, candOut);
+                if ((!isTabu(candIn) && !isTabu(candOut)) || aspires(deltaCost)) {
+                    best.offer(deltaCost, 0, candIn, candOut);
+                }
+            }
+        }
+
+        if (best.in == fake && best.out == fake) {
+            return false;
+        }
+        applyMoveStd(best.in, best.out);
+        return true;
+    }
+
+    /**
+     * Offers the best admissible insertion and the best admissible removal to
+     * the move, taken from the gain queues of the evaluator in O(log n) each
+     * instead of a scan of all flips. Moves of equal cost variation may come
+     * in another order than in a scan.
+     *
+     * @return false when the flips must be scanned instead, the move being
+     *         left untouched: the queues are disabled, they ignore the
+     *         coverage penalty in effect, or too many of the best flips are
+     *         tabu or infeasible.
+     */
+    private boolean queuedFlips(Move best) {
+        if (!useGainQueues || penalty > 0) {
+            return false;
+        }
+        int maxVisits = SCAN_VISIT_FACTOR * (tenureAdded + tenureDropped + 1);
+        Move flips = new Move();
+        var insertions = new CandidateScan(null, flips, true, maxVisits);
+        evaluator.visitInsertions(insertions);
+        if (insertions.capped) {
+            return false;
+        }
+        var removals = new CandidateScan(null, flips, false, maxVisits);
+        evaluator.visitRemovals(removals);
+        if (removals.capped) {
+            return false;
+        }
+        best.best(flips);
+        return true;
+    }
+
+    /**
+     * Collects, from the moves listed by a gain queue of the evaluator, the
+     * best candidates, if any are wanted, and the first admissible feasible
+     * move, which is the best one since the moves come by increasing cost
+     * variation. Tabu and infeasible moves are thus skipped lazily, without
+     * scanning the rest. Removals are kept as candidates by the cost
+     * variation of their flip, even when infeasible on their own, since an
+     * exchange may still repair them; feasibility is checked when the
+     * exchange is evaluated. A scan listing more than maxVisits moves stops
+     * and is marked as capped, in which case its results must be dropped.
+     */
+    private final class CandidateScan implements SCQBF.FlipVisitor {
+        private final BestCandidates candidates;
+        private final Move best;
+        private final boolean insertion;
+        private final int maxVisits;
+        private boolean admissibleFound;
+        private boolean capped;
+        private int visits;
+
+        CandidateScan(BestCandidates candidates, Move best, boolean insertion, int maxVisits) {
+            this.candidates = candidates;
+            this.best = best;
+            this.insertion = insertion;
+            this.maxVisits = maxVisits;
+        }
+
+        @Override
+        public boolean visit(int elem, double deltaCost) {
+            if (++visits > maxVisits) {
+                capped = true;
+                return false;
+            }
+            // while the solution is infeasible only the sets in CL may enter
+            if (insertion && !CL.contains(elem)) {
+                return true;
+            }
+            if (wantsCandidates()) {
+                candidates.offer(elem, insertion ? deltaCost : evaluator.evaluateFlipQBF(elem));
+            }
+            if (deltaCost == Double.POSITIVE_INFINITY) {
+                return true;
+            }
+            if (!admissibleFound && (!isTabu(elem) || aspires(deltaCost))) {
+                admissibleFound = true;
+                best.offer(deltaCost, 0, insertion ? elem : fake, insertion ? fake : elem);
+            }
+            return wantsCandidates() || !admissibleFound;
+        }
+
+        private boolean wantsCandidates() {
+            return candidates != null && candidates.size < candidateListSize;
+        }
+    }
+
+    /**
+     * The k elements of smallest cost variation offered to it, sorted by
+     * increasing cost variation.
+     */
+    private static final class BestCandidates {
+        final int[] elems;
+        final double[] deltas;
+        int size;
+
+        BestCandidates(int k) {
+            elems = new int[k];
+            deltas = new double[k];
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        void offer(int elem, double delta) {
+            if (size == elems.length && delta >= deltas[size - 1]) {
+                return;
+            }
+            int pos = size < elems.length ? size++ : size - 1;
+            while (pos > 0 && deltas[pos - 1] > delta) {
+                elems[pos] = elems[pos - 1];
+                deltas[pos] = deltas[pos - 1];
+                pos--;
+            }
+            elems[pos] = elem;
+            deltas[pos] = delta;
+        }
+    }
+
+    private IntSolution parallelBestImprovingMove() {
+        updateCL();
+
+        Move best = pool.invoke(new NeighborhoodScan(0, CL.size() + 1));
+        applyMoveStd(best.in, best.out);
+
+        return sol;
+    }
+
+    /**
+     * The best admissible move of a part of the neighborhood. Moves of equal
+     * cost variation are told apart by their rank, their position in the
+     * scan order of {@link #bestImprovingMove} (insertions, then removals,
+     * then exchanges), so that the reduction is deterministic.
+     */
+    private final class Move {
+        double delta = Double.POSITIVE_INFINITY;
+        long rank = Long.MAX_VALUE;
+        int in = fake, out = fake;
+
+        void offer(double delta, long rank, int in, int out) {
+            if (delta < this.delta || (delta == this.delta && delta != Double.POSITIVE_INFINITY && rank < this.rank)) {
+                this.delta = delta;
+                this.rank = rank;
+                this.in = in;
+                this.out = out;
+            }
+        }
+
+        Move best(Move other) {
+            offer(other.delta, other.rank, other.in, other.out);
+            return this;
+        }
+    }
+
+    /**
+     * Scans rows [lo, hi) of the neighborhood of the incumbent solution: row
+     * a < |CL| holds the insertion of CL[a] and its exchanges with every
+     * element of the solution, and row |CL| holds the removals. The bound
+     * evaluator state is only read while the scan runs.
+     */
+    private final class NeighborhoodScan extends RecursiveTask<Move> {
+        private static final long serialVersionUID = 1L;
+
+        private final int lo, hi;
+
+        NeighborhoodScan(int lo, int hi) {
+            this.lo = lo;
+            this.hi = hi;
+        }
 
-        Double bestDelta = Double.POSITIVE_INFINITY;
-        Integer bestCandIn = null, bestCandOut = null;
-
-        // Evaluate insertions
-        for (Integer candIn : CL) {
-            Double deltaCost = ObjFunction.evaluateInsertionCost(candIn, sol);
-            if (!TL.contains(candIn) || sol.cost+deltaCost < bestSol.cost) {
-                // if this move improves the solution
-                //  then apply it
-                if (deltaCost < 0) {
-                    applyMoveStd(candIn, null);
-                    return null;
+        @Override
+        protected Move compute() {
+            int grain = Math.max(1, 2048 / (sol.size() + 1));
+            if (hi - lo > grain) {
+                int mid = (lo + hi) >>> 1;
+                NeighborhoodScan left = new NeighborhoodScan(lo, mid);
+                left.fork();
+                Move right = new NeighborhoodScan(mid, hi).compute();
+                return left.join().best(right);
+            }
+
+            Move best = new Move();
+            for (int row = lo; row < hi; row++) {
+                if (row < CL.size()) {
+                    scanInsertionRow(row, best);
+                } else {
+                    scanRemovals(best);
                 }
+            }
+            return best;
+        }
 
-                // otherwise update the best non-improving move if necessary
-                if (deltaCost < bestDelta) {
-                    bestDelta = deltaCost;
-                    bestCandIn = candIn;
-                    bestCandOut = null;
+        private void scanInsertionRow(int a, Move best) {
+            int sizeCL = CL.size(), sizeSol = sol.size();
+            int candIn = CL.get(a);
+            double deltaCost = ObjFunction.evaluateInsertion(candIn);
+            if (!isTabu(candIn) || aspires(deltaCost)) {
+                best.offer(deltaCost, a, candIn, fake);
+            }
+
+            long rowRank = sizeCL + sizeSol + (long) a * sizeSol;
+            for (int b = 0; b < sizeSol; b++) {
+                int candOut = sol.get(b);
+                deltaCost = ObjFunction.evaluateExchange(candIn, candOut);
+                if ((!isTabu(candIn) && !isTabu(candOut)) || aspires(deltaCost)) {
+                    best.offer(deltaCost, rowRank + b, candIn, candOut);
                 }
             }
         }
-        // Evaluate removals
-        for (Integer candOut : sol) {
-            Double deltaCost = ObjFunction.evaluateRemovalCost(candOut, sol);
-            if (!TL.contains(candOut) || sol.cost+deltaCost < bestSol.cost) {
-                //if this move improves the solution
-                if (deltaCost < 0) {
-                    applyMoveStd(null, candOut);
-                    return null;
+
+        private void scanRemovals(Move best) {
+            int sizeCL = CL.size();
+            for (int b = 0; b < sol.size(); b++) {
+                int candOut = sol.get(b);
+                double deltaCost = ObjFunction.evaluateRemoval(candOut);
+                if (!isTabu(candOut) || aspires(deltaCost)) {
+                    best.offer(deltaCost, sizeCL + b, fake, candOut);
                 }
+            }
+        }
+    }
+
+    private IntSolution firstImprovingMove() {
+        updateCL();
 
-                // otherwise update the best non-improving move if necessary
-                if (deltaCost < bestDelta) {
-                    bestDelta = deltaCost;
-                    bestCandIn = null;
-                    bestCandOut = candOut;
+        double bestDelta = Double.POSITIVE_INFINITY;
+        int bestCandIn = fake, bestCandOut = fake;
+
+        // the best insertion or removal, from the gain queues, is applied if it improves the solution
+        Move flips = new Move();
+        if (queuedFlips(flips)) {
+            if (flips.delta < 0) {
+                applyMoveStd(flips.in, flips.out);
+                return null;
+            }
+            bestDelta = flips.delta;
+            bestCandIn = flips.in;
+            bestCandOut = flips.out;
+        } else {
+            // Evaluate insertions
+            for (int a = 0; a < CL.size(); a++) {
+                int candIn = CL.get(a);
+                double deltaCost = ObjFunction.evaluateInsertion(candIn);
+                if (!isTabu(candIn) || aspires(deltaCost)) {
+                    // if this move improves the solution
+                    //  then apply it
+                    if (deltaCost < 0) {
+                        applyMoveStd(candIn, fake);
+                        return null;
+                    }
+
+                    // otherwise update the best non-improving move if necessary
+                    if (deltaCost < bestDelta) {
+                        bestDelta = deltaCost;
+                        bestCandIn = candIn;
+                        bestCandOut = fake;
+                    }
+                }
+            }
+            // Evaluate removals
+            for (int b = 0; b < sol.size(); b++) {
+                int candOut = sol.get(b);
+                double deltaCost = ObjFunction.evaluateRemoval(candOut);
+                if (!isTabu(candOut) || aspires(deltaCost)) {
+                    //if this move improves the solution
+                    if (deltaCost < 0) {
+                        applyMoveStd(fake, candOut);
+                        return null;
+                    }
+
+                    // otherwise update the best non-improving move if necessary
+                    if (deltaCost < bestDelta) {
+                        bestDelta = deltaCost;
+                        bestCandIn = fake;
+                        bestCandOut = candOut;
+                    }
                 }
             }
         }
         // Evaluate exchanges
-        for (Integer candIn : CL) {
-            for (Integer candOut : sol) {
-                Double deltaCost = ObjFunction.evaluateExchangeCost(candIn, candOut, sol);
-                if ((!TL.contains(candIn) && !TL.contains(candOut)) || sol.cost+deltaCost < bestSol.cost) {
+        for (int a = 0; a < CL.size(); a++) {
+            int candIn = CL.get(a);
+            for (int b = 0; b < sol.size(); b++) {
+                int candOut = sol.get(b);
+                double deltaCost = ObjFunction.evaluateExchange(candIn, candOut);
+                if ((!isTabu(candIn) && !isTabu(candOut)) || aspires(deltaCost)) {
                     //if this move improves the solution
                     if (deltaCost < 0) {
                         applyMoveStd(candIn, candOut);
@@ -266,51 +984,62 @@ public class TSSCQBF extends AbstractTS<Integer> {
         return null;
     }
 
-    private void applyMoveStd(Integer candIn, Integer candOut) {
-        TL.poll();
-        if (candOut != null) {
-            sol.remove(candOut);
-            CL.add(candOut);
-            TL.add(candOut);
-        } else {
-            TL.add(fake);
-        }
-        TL.poll();
-        if (candIn != null) {
-            sol.add(candIn);
-            CL.remove(candIn);
-            TL.add(candIn);
-        } else {
-            TL.add(fake);
+    /**
+     * Applies the best prefix of an ejection chain built on the incumbent
+     * solution, when it improves the solution. Tabu elements may be flipped
+     * when that leads below the cost of the best solution. Each element
+     * flipped by the chain becomes tabu.
+     *
+     * @return whether the solution changed.
+     */
+    private boolean ejectionChainMove() {
+        int depth = ejectionChain.build(sol, this::isTabu, bestSol.cost - EPSILON);
+        for (int k = 0; k < depth; k++) {
+            int elem = ejectionChain.getFlip(k);
+            if (sol.contains(elem)) {
+                makeTabuAdded(elem);
+            } else {
+                makeTabuDropped(elem);
+            }
+            flipHash(elem);
         }
-        ObjFunction.evaluate(sol);
+        return depth > 0;
     }
 
-    private void applyMoveIntensify(Integer in1, Integer in2, Integer out) {
-        TL.poll();
-        if (out != null) {
-            sol.remove(out);
-            CL.add(out);
-            TL.add(out);
-        } else {
-            TL.add(fake);
+    private void applyMoveStd(int candIn, int candOut) {
+        if (candOut != fake) {
+            ObjFunction.applyRemoval(candOut);
+            makeTabuDropped(candOut);
+            flipHash(candOut);
         }
-        TL.poll();
-        if (in1 != null) {
-            sol.add(in1);
-            CL.remove(in1);
-            TL.add(in1);
-        } else {
-            TL.add(fake);
+        if (candIn != fake) {
+            ObjFunction.applyInsertion(candIn);
+            makeTabuAdded(candIn);
+            flipHash(candIn);
         }
-        TL.poll();
-        if (in2 != null) {
-            sol.add(in2);
-            CL.remove(in2);
-            TL.add(in2);
-        } else {
-            TL.add(fake);
+    }
+
+    private void applyMoveIntensify(int in1, int in2, int out) {
+        ObjFunction.applyRemoval(out);
+        makeTabuDropped(out);
+        flipHash(out);
+
+        ObjFunction.applyInsertion(in1);
+        makeTabuAdded(in1);
+        flipHash(in1);
+
+        ObjFunction.applyInsertion(in2);
+        makeTabuAdded(in2);
+        flipHash(in2);
+    }
+
+    /**
+     * Updates the Zobrist hash of the incumbent solution after the element
+     * entered or left it.
+     */
+    private void flipHash(int elem) {
+        if (visited != null) {
+            hash ^= visited.key(elem);
         }
-        ObjFunction.evaluate(sol);
     }
 }
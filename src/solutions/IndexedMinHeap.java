@@ -0,0 +1,151 @@
+package solutions;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of int keys in [0, capacity), each with a double
+ * priority. A position index makes membership tests O(1) and lets the
+ * priority of any key change in O(log n).
+ */
+public class IndexedMinHeap {
+
+    private final int[] heap;
+
+    /**
+     * position[key] = index of the key in {@link #heap}, or -1 when absent
+     */
+    private final int[] position;
+
+    private final double[] priority;
+
+    private int size;
+
+    public IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        position = new int[capacity];
+        priority = new double[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int key) {
+        return position[key] >= 0;
+    }
+
+    /**
+     * @return the priority of a key in the heap
+     */
+    public double priority(int key) {
+        return priority[key];
+    }
+
+    /**
+     * @return the key of smallest priority, the heap being not empty
+     */
+    public int peek() {
+        return heap[0];
+    }
+
+    /**
+     * Adds a key absent from the heap
+     */
+    public void add(int key, double p) {
+        heap[size] = key;
+        position[key] = size;
+        priority[key] = p;
+        siftUp(size++);
+    }
+
+    /**
+     * Changes the priority of a key in the heap
+     */
+    public void update(int key, double p) {
+        double old = priority[key];
+        priority[key] = p;
+        if (p < old) {
+            siftUp(position[key]);
+        } else if (p > old) {
+            siftDown(position[key]);
+        }
+    }
+
+    /**
+     * Removes a key from the heap
+     */
+    public void remove(int key) {
+        int pos = position[key];
+        position[key] = -1;
+        int last = heap[--size];
+        if (pos == size) {
+            return;
+        }
+        heap[pos] = last;
+        position[last] = pos;
+        siftUp(pos);
+        siftDown(position[last]);
+    }
+
+    /**
+     * Removes and returns the key of smallest priority, the heap being not
+     * empty
+     */
+    public int poll() {
+        int key = heap[0];
+        remove(key);
+        return key;
+    }
+
+    public void clear() {
+        for (int k = 0; k < size; k++) {
+            position[heap[k]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int pos) {
+        int key = heap[pos];
+        double p = priority[key];
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            int parentKey = heap[parent];
+            if (priority[parentKey] <= p) {
+                break;
+            }
+            heap[pos] = parentKey;
+            position[parentKey] = pos;
+            pos = parent;
+        }
+        heap[pos] = key;
+        position[key] = pos;
+    }
+
+    private void siftDown(int pos) {
+        int key = heap[pos];
+        double p = priority[key];
+        while (true) {
+            int child = 2 * pos + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && priority[heap[child + 1]] < priority[heap[child]]) {
+                child++;
+            }
+            int childKey = heap[child];
+            if (priority[childKey] >= p) {
+                break;
+            }
+            heap[pos] = childKey;
+            position[childKey] = pos;
+            pos = child;
+        }
+        heap[pos] = key;
+        position[key] = pos;
+    }
+}
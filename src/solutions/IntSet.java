@@ -0,0 +1,137 @@
+package solutions;
+
+import java.util.Arrays;
+
+/**
+ * A set of int elements taken from the domain [0, capacity). The members are
+ * kept in a dense array, with the position of each element and a membership
+ * bitset alongside, so that add, remove and contains are O(1) and no element
+ * is ever boxed.
+ *
+ * Removing an element moves the last member into its place, so the order of
+ * the members is not the insertion order.
+ */
+public class IntSet {
+
+    //elements[0 .. size-1] are the members of the set
+    protected final int[] elements;
+
+    //position[e] = index of e in elements, or -1 when e is not a member
+    protected final int[] position;
+
+    //bit e is set when e is a member
+    protected final long[] bits;
+
+    protected int size;
+
+    public IntSet(int capacity) {
+        elements = new int[capacity];
+        position = new int[capacity];
+        bits = new long[(capacity + 63) >>> 6];
+        Arrays.fill(position, -1);
+    }
+
+    public IntSet(IntSet other) {
+        elements = other.elements.clone();
+        position = other.position.clone();
+        bits = other.bits.clone();
+        size = other.size;
+    }
+
+    /**
+     * Makes this set equal to another one of the same capacity, copying its
+     * arrays with {@link System#arraycopy}
+     */
+    public void copyFrom(IntSet other) {
+        System.arraycopy(other.elements, 0, elements, 0, other.size);
+        System.arraycopy(other.position, 0, position, 0, position.length);
+        System.arraycopy(other.bits, 0, bits, 0, bits.length);
+        size = other.size;
+    }
+
+    /**
+     * Makes this set equal to another one of the same capacity, with the
+     * members in increasing order, walking the membership bitset of the
+     * other set instead of sorting its members
+     */
+    public void copySortedFrom(IntSet other) {
+        clear();
+        for (int w = 0; w < other.bits.length; w++) {
+            long word = other.bits[w];
+            bits[w] = word;
+            while (word != 0) {
+                int e = (w << 6) + Long.numberOfTrailingZeros(word);
+                position[e] = size;
+                elements[size++] = e;
+                word &= word - 1;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the k-th member, for 0 <= k < size()
+     */
+    public int get(int k) {
+        return elements[k];
+    }
+
+    public boolean contains(int e) {
+        return (bits[e >>> 6] & (1L << e)) != 0;
+    }
+
+    /**
+     * @return whether the element was added (false when already a member)
+     */
+    public boolean add(int e) {
+        if (contains(e))
+            return false;
+
+        position[e] = size;
+        elements[size++] = e;
+        bits[e >>> 6] |= 1L << e;
+        return true;
+    }
+
+    /**
+     * @return whether the element was removed (false when not a member)
+     */
+    public boolean remove(int e) {
+        if (!contains(e))
+            return false;
+
+        int k = position[e];
+        int last = elements[--size];
+        elements[k] = last;
+        position[last] = k;
+        position[e] = -1;
+        bits[e >>> 6] &= ~(1L << e);
+        return true;
+    }
+
+    public void clear() {
+        for (int k = 0; k < size; k++) {
+            position[elements[k]] = -1;
+        }
+        Arrays.fill(bits, 0L);
+        size = 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int k = 0; k < size; k++) {
+            if (k > 0)
+                sb.append(", ");
+            sb.append(elements[k]);
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,57 @@
+package solutions;
+
+/**
+ * A solution made of int elements, backed by an {@link IntSet} so that the
+ * search can test, insert and remove elements without boxing. Unlike in an
+ * IntSet, the members stay in insertion order, as in a list.
+ */
+public class IntSolution extends IntSet {
+
+    public double cost = Double.POSITIVE_INFINITY;
+
+    public IntSolution(int capacity) {
+        super(capacity);
+    }
+
+    public IntSolution(IntSolution sol) {
+        super(sol);
+        cost = sol.cost;
+    }
+
+    /**
+     * Makes this solution equal to another one of the same capacity, without
+     * allocating
+     */
+    public void copyFrom(IntSolution sol) {
+        super.copyFrom(sol);
+        cost = sol.cost;
+    }
+
+    /**
+     * Removes the element by shifting the members after it, in O(size), so
+     * that the scans over the solution visit its elements in the same order
+     * whatever removals were made before.
+     *
+     * @return whether the element was removed (false when not a member)
+     */
+    @Override
+    public boolean remove(int e) {
+        if (!contains(e))
+            return false;
+
+        int k = position[e];
+        System.arraycopy(elements, k + 1, elements, k, --size - k);
+        for (int m = k; m < size; m++) {
+            position[elements[m]] = m;
+        }
+        position[e] = -1;
+        bits[e >>> 6] &= ~(1L << e);
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "Solution: cost=[" + cost + "], size=[" + this.size() + "], elements=" + super.toString();
+    }
+
+}